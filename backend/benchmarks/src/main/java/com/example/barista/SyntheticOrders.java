@@ -0,0 +1,56 @@
+package com.example.barista;
+
+import com.example.barista.model.Barista;
+import com.example.barista.model.Order;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public final class SyntheticOrders {
+
+    private static final String[] DRINKS = {"Cold Brew", "Espresso", "Americano", "Cappuccino", "Latte", "Mocha"};
+    private static final int[] PREP_TIMES = {1, 2, 2, 4, 4, 6};
+
+    private SyntheticOrders() {
+    }
+
+    /**
+     * Waiting orders in arrival order, spread over the {@code spanMinutes} before {@code now}.
+     */
+    public static List<Order> waitingOrders(int count, LocalDateTime now, int spanMinutes, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long spanSeconds = spanMinutes * 60L;
+        List<Order> orders = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            int drink = random.nextInt(DRINKS.length);
+            long offsetSeconds = spanSeconds - (spanSeconds * index / Math.max(1, count));
+            orders.add(Order.builder()
+                    .id((long) index + 1)
+                    .drinkType(DRINKS[drink])
+                    .prepTime(PREP_TIMES[drink])
+                    .arrivalTime(now.minusSeconds(offsetSeconds))
+                    .customerName("Customer " + (index + 1))
+                    .loyaltyCustomer(random.nextInt(4) == 0)
+                    .rushOrder(random.nextInt(10) == 0)
+                    .skippedByLaterCount(random.nextInt(6))
+                    .status("WAITING")
+                    .build());
+        }
+        return orders;
+    }
+
+    public static List<Barista> baristas(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Barista> baristas = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            baristas.add(Barista.builder()
+                    .id((long) index + 1)
+                    .name("Barista " + (index + 1))
+                    .available(true)
+                    .workloadMinutes(random.nextInt(120))
+                    .build());
+        }
+        return baristas;
+    }
+}
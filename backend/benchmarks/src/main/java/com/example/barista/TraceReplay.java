@@ -0,0 +1,297 @@
+package com.example.barista;
+
+import com.example.barista.dto.CapacityPlanDto;
+import com.example.barista.dto.DispatchSimulationReportDto;
+import com.example.barista.model.Order;
+import com.example.barista.service.AssignmentStrategy;
+import com.example.barista.service.CapacityPlanner;
+import com.example.barista.service.GreedyAssignmentStrategy;
+import com.example.barista.service.MatchingAssignmentStrategy;
+import com.example.barista.service.OrderService;
+import com.example.barista.util.OrderTraceReader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a recorded order trace (CSV or NDJSON, see {@link OrderTraceReader}).
+ *
+ * <p>{@code --mode sim} (default) runs it through the dispatch simulator as fast as it can, for
+ * every roster from {@code --min-baristas} to {@code --max-baristas}, and reports the smallest one
+ * whose p95 wait meets {@code --target-p95} minutes. {@code --mode http} posts every order to a
+ * running backend at its recorded offset divided by {@code --speed} and reports sustained
+ * orders/sec, API latency percentiles and the WAITING queue depth polled from the actuator.
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.barista.TraceReplay \
+ *     -Dexec.args="--trace orders.csv --mode sim --max-baristas 8 --target-p95 5"
+ * </pre>
+ */
+public final class TraceReplay {
+
+    private final Map<String, String> options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path trace;
+    private final OrderTraceReader.Format format;
+
+    private TraceReplay(Map<String, String> options) {
+        this.options = options;
+        this.trace = Path.of(required("trace"));
+        this.format = options.containsKey("format")
+                ? OrderTraceReader.Format.valueOf(options.get("format").toUpperCase())
+                : OrderTraceReader.Format.of(trace.getFileName().toString());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int index = 0; index + 1 < args.length; index += 2) {
+            if (!args[index].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value pairs, got " + args[index]);
+            }
+            options.put(args[index].substring(2), args[index + 1]);
+        }
+
+        TraceReplay replay = new TraceReplay(options);
+        if ("http".equals(options.getOrDefault("mode", "sim"))) {
+            replay.replayOverHttp();
+        } else {
+            replay.planCapacity();
+        }
+    }
+
+    private void planCapacity() throws IOException {
+        String strategyName = options.getOrDefault("strategy", "greedy");
+        AssignmentStrategy strategy = "matching".equals(strategyName)
+                ? new MatchingAssignmentStrategy()
+                : new GreedyAssignmentStrategy();
+        int sampleMinutes = intOption("sample-minutes", 0);
+        List<OrderTraceReader> opened = new ArrayList<>();
+
+        long started = System.nanoTime();
+        CapacityPlanDto plan = CapacityPlanner.plan(
+                () -> simulatedArrivals(opened),
+                strategy,
+                strategyName,
+                intOption("min-baristas", 1),
+                intOption("max-baristas", 12),
+                Double.parseDouble(options.getOrDefault("target-p95", "5")),
+                sampleMinutes
+        );
+        double seconds = (System.nanoTime() - started) / 1e9;
+        for (OrderTraceReader reader : opened) {
+            reader.close();
+        }
+
+        System.out.printf("%8s %10s %10s %10s %12s %11s %9s%n",
+                "baristas", "p50 wait", "p95 wait", "p99 wait", "orders/hour", "utilization", "max queue");
+        long simulatedOrders = 0;
+        for (DispatchSimulationReportDto run : plan.getRuns()) {
+            simulatedOrders += run.getOrders();
+            System.out.printf("%8d %10.2f %10.2f %10.2f %12.1f %11.2f %9d%n",
+                    run.getBaristas(), run.getWaitP50Minutes(), run.getWaitP95Minutes(), run.getWaitP99Minutes(),
+                    run.getThroughputPerHour(), run.getUtilization(), run.getMaxQueueDepth());
+        }
+        System.out.printf("simulated %d orders in %.1f s (%.0f orders/sec)%n",
+                simulatedOrders, seconds, simulatedOrders / seconds);
+        System.out.println(plan.getRecommendedBaristas() == null
+                ? "no roster up to the maximum keeps p95 wait within " + plan.getTargetP95WaitMinutes() + " min"
+                : "minimum staffing for p95 wait <= " + plan.getTargetP95WaitMinutes() + " min: "
+                        + plan.getRecommendedBaristas() + " baristas");
+
+        if (sampleMinutes > 0 && options.containsKey("curve-out")) {
+            DispatchSimulationReportDto last = plan.getRuns().get(plan.getRuns().size() - 1);
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Path.of(options.get("curve-out"))))) {
+                out.println("minute,queue_depth");
+                List<Integer> curve = last.getQueueDepthCurve();
+                for (int window = 0; window < curve.size(); window++) {
+                    out.println(window * sampleMinutes + "," + curve.get(window));
+                }
+            }
+        }
+    }
+
+    private Iterator<Order> simulatedArrivals(List<OrderTraceReader> opened) {
+        OrderTraceReader reader = openTrace();
+        opened.add(reader);
+        return new Iterator<>() {
+            private long read;
+
+            @Override
+            public boolean hasNext() {
+                return reader.hasNext();
+            }
+
+            @Override
+            public Order next() {
+                OrderTraceReader.Arrival arrival = reader.next();
+                Order order = OrderService.newOrder(arrival.getRequest(), arrival.getTimestamp());
+                order.setId(++read);
+                return order;
+            }
+        };
+    }
+
+    private void replayOverHttp() throws Exception {
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8082");
+        double speed = Double.parseDouble(options.getOrDefault("speed", "1"));
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        if (options.containsKey("email")) {
+            String credentials = objectMapper.writeValueAsString(Map.of(
+                    "email", options.get("email"), "password", required("password")
+            ));
+            expectOk(client.send(post(baseUrl + "/api/auth/login", credentials), HttpResponse.BodyHandlers.ofString()));
+        }
+        if (options.containsKey("seed-baristas")) {
+            HttpRequest seed = HttpRequest.newBuilder(URI.create(baseUrl + "/api/baristas/seed?count="
+                    + options.get("seed-baristas"))).POST(HttpRequest.BodyPublishers.noBody()).build();
+            expectOk(client.send(seed, HttpResponse.BodyHandlers.ofString()));
+        }
+
+        List<long[]> queueDepths = new ArrayList<>();
+        long started = System.nanoTime();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> sampleQueueDepth(client, baseUrl, started, queueDepths),
+                0, intOption("sample-seconds", 1), TimeUnit.SECONDS);
+
+        List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+        AtomicLong sent = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        List<Long> completedLatencies = new ArrayList<>();
+
+        LocalDateTime firstTimestamp = null;
+        try (OrderTraceReader reader = openTrace()) {
+            while (reader.hasNext()) {
+                OrderTraceReader.Arrival arrival = reader.next();
+                if (firstTimestamp == null) {
+                    firstTimestamp = arrival.getTimestamp();
+                }
+                long dueNanos = started + (long) (Duration.between(firstTimestamp, arrival.getTimestamp()).toNanos() / speed);
+                long waitNanos = dueNanos - System.nanoTime();
+                if (waitNanos > 0) {
+                    LockSupport.parkNanos(waitNanos);
+                }
+
+                long requestStarted = System.nanoTime();
+                sent.incrementAndGet();
+                HttpRequest request = post(baseUrl + "/api/orders", objectMapper.writeValueAsString(arrival.getRequest()));
+                inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .handle((response, error) -> {
+                            if (error != null || response.statusCode() >= 400) {
+                                failed.incrementAndGet();
+                            } else {
+                                synchronized (completedLatencies) {
+                                    completedLatencies.add(System.nanoTime() - requestStarted);
+                                }
+                            }
+                            return null;
+                        }));
+            }
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        sampler.shutdownNow();
+
+        long[] latencies;
+        synchronized (completedLatencies) {
+            latencies = completedLatencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+        System.out.printf("sent %d orders in %.1f s, %d failed, sustained %.1f orders/sec%n",
+                sent.get(), seconds, failed.get(), latencies.length / seconds);
+        if (latencies.length > 0) {
+            System.out.printf("POST /api/orders p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                    percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99),
+                    latencies[latencies.length - 1] / 1e6);
+        }
+        System.out.println("second,waiting_orders");
+        synchronized (queueDepths) {
+            queueDepths.forEach(point -> System.out.println(point[0] + "," + point[1]));
+        }
+    }
+
+    private void sampleQueueDepth(HttpClient client, String baseUrl, long started, List<long[]> queueDepths) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(
+                baseUrl + "/actuator/metrics/barista.orders.queue.depth?tag=status:WAITING"
+        )).GET().build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return;
+            }
+            JsonNode measurements = objectMapper.readTree(response.body()).path("measurements");
+            long depth = (long) measurements.path(0).path("value").asDouble();
+            synchronized (queueDepths) {
+                queueDepths.add(new long[]{(System.nanoTime() - started) / 1_000_000_000L, depth});
+            }
+        } catch (IOException ex) {
+            // a missed sample only leaves a gap in the curve
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private OrderTraceReader openTrace() {
+        try {
+            return new OrderTraceReader(Files.newBufferedReader(trace), format, objectMapper);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static void expectOk(HttpResponse<String> response) {
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(response.request().uri() + " returned "
+                    + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double quantile) {
+        int rank = (int) Math.ceil(quantile * sortedNanos.length);
+        return sortedNanos[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    private String required(String option) {
+        String value = options.get(option);
+        if (value == null) {
+            throw new IllegalArgumentException("--" + option + " is required");
+        }
+        return value;
+    }
+
+    private int intOption(String option, int defaultValue) {
+        return options.containsKey(option) ? Integer.parseInt(options.get(option)) : defaultValue;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.barista.config;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Simulated request mix over the CacheConfig caches: each request reads the roster, one barista
+ * by id and one user by email, and {@code writesPerThousand} of them also write a barista, which
+ * evicts the barista caches. A "database" load parks for {@code roundTripMicros}; the
+ * {@code dbRoundTrips} counter divided by the op count is the round trips per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class CacheRoundTripBenchmark {
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    @Param({"0", "10", "100"})
+    private int writesPerThousand;
+
+    @Param({"200"})
+    private int roundTripMicros;
+
+    @Param({"12"})
+    private int baristaCount;
+
+    @Param({"1000"})
+    private int userCount;
+
+    private Cache roster;
+    private Cache baristas;
+    private Cache users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CacheManager cacheManager = new CacheConfig().cacheManager(1000, 10, 10000, 300);
+        roster = cacheManager.getCache(CacheConfig.BARISTA_ROSTER);
+        baristas = cacheManager.getCache(CacheConfig.BARISTAS);
+        users = cacheManager.getCache(CacheConfig.USERS_BY_EMAIL);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class RoundTrips {
+        public long dbRoundTrips;
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    public Object request(RoundTrips counters) {
+        SplittableRandom random = counters.random;
+        Object baristaRoster = read(roster, "all", counters, () -> List.of(baristaCount));
+        long baristaId = random.nextInt(baristaCount);
+        Object barista = read(baristas, baristaId, counters, () -> baristaId);
+        String email = "user" + random.nextInt(userCount) + "@example.com";
+        Object user = read(users, email, counters, () -> email);
+
+        if (random.nextInt(1000) < writesPerThousand) {
+            roundTrip(counters);
+            roster.clear();
+            baristas.clear();
+        }
+        return baristaRoster.hashCode() + barista.hashCode() + user.hashCode();
+    }
+
+    private Object read(Cache cache, Object key, RoundTrips counters, Supplier<Object> loader) {
+        if (!cached) {
+            roundTrip(counters);
+            return loader.get();
+        }
+        return cache.get(key, () -> {
+            roundTrip(counters);
+            return loader.get();
+        });
+    }
+
+    private void roundTrip(RoundTrips counters) {
+        counters.dbRoundTrips++;
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.barista.service;
+
+import com.example.barista.dto.AnalyticsResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Speedup of generateTestCases as the simulation pool grows; compare the scores across
+ * {@code parallelism} values from the same run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyticsParallelismBenchmark {
+
+    @Param({"1", "2", "4", "8", "16"})
+    private int parallelism;
+
+    @Param({"64"})
+    private int testCases;
+
+    @Param({"5000"})
+    private int ordersPerCase;
+
+    private AnalyticsService analyticsService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        analyticsService = new AnalyticsService(testCases, parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        analyticsService.shutdown();
+    }
+
+    @Benchmark
+    public AnalyticsResponseDto generateTestCases() {
+        return analyticsService.generateTestCases(testCases, ordersPerCase, ordersPerCase, 42L);
+    }
+}
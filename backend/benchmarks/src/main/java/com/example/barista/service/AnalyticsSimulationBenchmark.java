@@ -0,0 +1,86 @@
+package com.example.barista.service;
+
+import com.example.barista.dto.AnalyticsOrderDto;
+import com.example.barista.util.BaristaQueueKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalyticsSimulationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int queueSize;
+
+    private final AnalyticsService analyticsService = new AnalyticsService();
+    private List<AnalyticsService.OrderSpec> specs;
+
+    private BaristaQueueKernel kernel;
+    private long[] arrivalMinutes;
+    private int[] priorities;
+    private int[] prepTimes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42L);
+        LocalDateTime base = LocalDateTime.now().withHour(7).withMinute(0);
+        specs = new ArrayList<>(queueSize);
+        for (int index = 0; index < queueSize; index++) {
+            specs.add(new AnalyticsService.OrderSpec(
+                    "BM-" + index,
+                    "Customer " + index,
+                    "Latte",
+                    "Ava",
+                    base.plusMinutes(random.nextInt(360)),
+                    1 + random.nextInt(5),
+                    1 + random.nextInt(8),
+                    index
+            ));
+        }
+
+        kernel = new BaristaQueueKernel(queueSize);
+        arrivalMinutes = new long[queueSize];
+        priorities = new int[queueSize];
+        prepTimes = new int[queueSize];
+        for (int index = 0; index < queueSize; index++) {
+            AnalyticsService.OrderSpec spec = specs.get(index);
+            arrivalMinutes[index] = spec.getArrivalTime().getHour() * 60L + spec.getArrivalTime().getMinute();
+            priorities[index] = spec.getPriority();
+            prepTimes[index] = spec.getPrepTime();
+        }
+    }
+
+    @Benchmark
+    public List<AnalyticsOrderDto> simulateBaristaQueue() {
+        return analyticsService.simulateBaristaQueue(specs);
+    }
+
+    @Benchmark
+    public long simulateKernel() {
+        kernel.reset();
+        for (int index = 0; index < queueSize; index++) {
+            kernel.add(arrivalMinutes[index], priorities[index], prepTimes[index], index);
+        }
+        kernel.run();
+        return kernel.completionMinute(kernel.servedAt(queueSize - 1));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.barista.service;
+
+import com.example.barista.SyntheticOrders;
+import com.example.barista.model.Barista;
+import com.example.barista.service.AssignmentStrategy.Assignment;
+import com.example.barista.util.PriorityIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One dispatch plan per op, greedy vs min-cost matching over the top {@code topK} orders. Planned
+ * orders are put back into the index afterwards, so each op plans against the same queue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssignmentStrategyBenchmark {
+
+    @Param({"1000", "100000"})
+    private int queueSize;
+
+    @Param({"3", "12", "50"})
+    private int freeBaristas;
+
+    @Param({"500"})
+    private int topK;
+
+    private PriorityIndex waitingOrders;
+    private List<Barista> baristas;
+    private double averageWorkload;
+    private AssignmentStrategy greedy;
+    private AssignmentStrategy matching;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        waitingOrders = PriorityIndex.of(SyntheticOrders.waitingOrders(queueSize, now, 15, 42L), now);
+        baristas = SyntheticOrders.baristas(freeBaristas, 7L);
+        averageWorkload = baristas.stream().mapToInt(Barista::getWorkloadMinutes).average().orElse(0);
+        greedy = new GreedyAssignmentStrategy();
+        matching = new MatchingAssignmentStrategy(topK);
+    }
+
+    @Benchmark
+    public List<Assignment> greedy() {
+        return planAndRestore(greedy);
+    }
+
+    @Benchmark
+    public List<Assignment> matching() {
+        return planAndRestore(matching);
+    }
+
+    private List<Assignment> planAndRestore(AssignmentStrategy strategy) {
+        List<Assignment> plan = strategy.plan(baristas, waitingOrders, averageWorkload);
+        for (Assignment assignment : plan) {
+            waitingOrders.add(assignment.getOrder());
+        }
+        return plan;
+    }
+}
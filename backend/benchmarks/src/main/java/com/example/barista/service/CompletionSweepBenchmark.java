@@ -0,0 +1,169 @@
+package com.example.barista.service;
+
+import com.example.barista.RepositoryDouble;
+import com.example.barista.model.Barista;
+import com.example.barista.model.Order;
+import com.example.barista.repository.BaristaRepository;
+import com.example.barista.repository.OrderRepository;
+import com.example.barista.repository.OrderRollupRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall time and round trips of one {@link SchedulingAgentService#completeFinishedOrders} sweep
+ * over {@code completions} due orders, each held by its own barista, in memory dispatch mode. The
+ * repositories are {@link RepositoryDouble}s that park {@code roundTripMicros} per statement;
+ * everything else (engine, timers, metrics, rollups, events, prep-time deadlines) is the real
+ * thing. Before each sweep the engine is rehydrated and the orders' timers armed, as at startup.
+ * The {@code roundTrips} counter divided by the op count is per sweep.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompletionSweepBenchmark {
+
+    @Param({"10", "100", "1000", "2500"})
+    private int completions;
+
+    @Param({"250"})
+    private int roundTripMicros;
+
+    private RepositoryDouble<OrderRepository> orders;
+    private RepositoryDouble<BaristaRepository> baristas;
+    private DispatchEngine dispatchEngine;
+    private CompletionScheduler completionScheduler;
+    private DispatchEventPublisher eventPublisher;
+    private SchedulingAgentService agentService;
+
+    // what the engine rehydrates from, and the separate rows the sweep's locking select returns
+    private List<Order> residentOrders;
+    private List<Order> lockedOrders;
+    private List<Barista> residentBaristas;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class RoundTrips {
+        public long roundTrips;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orders = RepositoryDouble.of(OrderRepository.class, roundTripMicros)
+                .answer("findByStatusOrderByArrivalTimeAsc",
+                        args -> "IN_PROGRESS".equals(args[0]) ? residentOrders : List.of())
+                .answer("lockDueInProgress", args -> lockedOrders)
+                .answer("completeAllInProgress", args -> ((Collection<?>) args[0]).size());
+        baristas = RepositoryDouble.of(BaristaRepository.class, roundTripMicros)
+                .answer("findAll", args -> residentBaristas)
+                .answer("releaseFromOrders", args -> ((Collection<?>) args[0]).size());
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Clock clock = Clock.systemDefaultZone();
+        PrepTimeEstimator prepTimeEstimator = new PrepTimeEstimator();
+        ReflectionTestUtils.setField(prepTimeEstimator, "smoothing", 0.1);
+        ReflectionTestUtils.setField(prepTimeEstimator, "learning", true);
+        ReflectionTestUtils.setField(prepTimeEstimator, "autoCompleteFactor", 2.0);
+
+        dispatchEngine = new DispatchEngine(orders.repository(), baristas.repository());
+        completionScheduler = new CompletionScheduler(null, prepTimeEstimator, meterRegistry, clock);
+        eventPublisher = new DispatchEventPublisher(new ObjectMapper().findAndRegisterModules());
+        // the pass a sweep requests runs on the dispatch worker, not in the sweep
+        DispatchTrigger dispatchTrigger = new DispatchTrigger(null, meterRegistry) {
+            @Override
+            public void request() {
+            }
+        };
+        OrderRollupService orderRollupService = new OrderRollupService(
+                RepositoryDouble.of(OrderRollupRepository.class, roundTripMicros).repository(),
+                baristas.repository(), null, clock
+        );
+
+        agentService = new SchedulingAgentService(
+                orders.repository(),
+                baristas.repository(),
+                dispatchEngine,
+                completionScheduler,
+                eventPublisher,
+                dispatchTrigger,
+                new DispatchMetrics(meterRegistry, dispatchEngine, orders.repository(), baristas.repository()),
+                orderRollupService,
+                prepTimeEstimator,
+                Map.of(),
+                clock,
+                null
+        );
+        ReflectionTestUtils.setField(agentService, "dispatchMode", DispatchMode.MEMORY);
+    }
+
+    @Setup(Level.Invocation)
+    public void armSweep() {
+        LocalDateTime now = LocalDateTime.now();
+        residentOrders = new ArrayList<>(completions);
+        lockedOrders = new ArrayList<>(completions);
+        residentBaristas = new ArrayList<>(completions);
+        for (int index = 0; index < completions; index++) {
+            long id = index + 1L;
+            residentOrders.add(inProgressOrder(id, now));
+            lockedOrders.add(inProgressOrder(id, now));
+            residentBaristas.add(Barista.builder()
+                    .id(id)
+                    .name("Barista " + id)
+                    .available(false)
+                    .currentOrderId(id)
+                    .build());
+        }
+        dispatchEngine.rehydrate();
+        residentOrders.forEach(completionScheduler::arm);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventPublisher.shutdown();
+    }
+
+    @Benchmark
+    public void sweep(RoundTrips counters) {
+        long before = orders.roundTrips() + baristas.roundTrips();
+        agentService.completeFinishedOrders();
+        counters.roundTrips += orders.roundTrips() + baristas.roundTrips() - before;
+    }
+
+    private static Order inProgressOrder(long id, LocalDateTime now) {
+        return Order.builder()
+                .id(id)
+                .drinkType("Latte")
+                .prepTime(4)
+                .arrivalTime(now.minusMinutes(20))
+                .startedAt(now.minusMinutes(15))
+                .customerName("Customer " + id)
+                .status("IN_PROGRESS")
+                .assignedBaristaId(id)
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.barista.service;
+
+import com.example.barista.dto.DispatchSimulationReportDto;
+import com.example.barista.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full {@link DispatchSimulator} run per op over {@code orders} Poisson arrivals at
+ * {@code utilization} of the roster's capacity; arrivals are generated lazily inside the op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DispatchSimulatorBenchmark {
+
+    private static final int[] PREP_TIMES = {1, 2, 2, 4, 4, 6, 6};
+    private static final double MEAN_PREP_MINUTES = 25 / 7.0;
+
+    @Param({"100000", "1000000"})
+    private int orders;
+
+    @Param({"3", "12"})
+    private int baristas;
+
+    @Param({"0.9"})
+    private double utilization;
+
+    @Param({"greedy", "matching"})
+    private String strategy;
+
+    @Benchmark
+    public DispatchSimulationReportDto run() {
+        AssignmentStrategy assignmentStrategy = "matching".equals(strategy)
+                ? new MatchingAssignmentStrategy(500)
+                : new GreedyAssignmentStrategy();
+        double ordersPerHour = utilization * baristas * 60 / MEAN_PREP_MINUTES;
+        return new DispatchSimulator(assignmentStrategy, strategy, baristas).run(arrivals(ordersPerHour));
+    }
+
+    private Iterator<Order> arrivals(double ordersPerHour) {
+        SplittableRandom random = new SplittableRandom(42L);
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 8, 0);
+        return new Iterator<>() {
+            private int produced;
+            private double offsetSeconds;
+
+            @Override
+            public boolean hasNext() {
+                return produced < orders;
+            }
+
+            @Override
+            public Order next() {
+                offsetSeconds += -Math.log(1 - random.nextDouble()) * 3600 / ordersPerHour;
+                produced++;
+                return Order.builder()
+                        .id((long) produced)
+                        .prepTime(PREP_TIMES[random.nextInt(PREP_TIMES.length)])
+                        .arrivalTime(start.plusSeconds((long) offsetSeconds))
+                        .loyaltyCustomer(random.nextInt(4) == 0)
+                        .rushOrder(random.nextInt(10) == 0)
+                        .build();
+            }
+        };
+    }
+}
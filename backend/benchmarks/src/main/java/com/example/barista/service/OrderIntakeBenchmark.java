@@ -0,0 +1,159 @@
+package com.example.barista.service;
+
+import com.example.barista.NoTransactionManager;
+import com.example.barista.RepositoryDouble;
+import com.example.barista.SyntheticOrders;
+import com.example.barista.dto.CreateOrderRequest;
+import com.example.barista.model.Order;
+import com.example.barista.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Orders acknowledged per second by 16 concurrent tills calling the real
+ * {@link OrderService#createOrder}. "directSave" is direct intake: each request waits out the
+ * IDENTITY insert on an {@link OrderRepository} double that parks {@code saveMicros} per
+ * statement (a healthy database, then one having a hiccup). "journaled" is journal intake: the
+ * real {@link OrderIntakeService} appends to an {@code IntakeJournal} in a temp directory and
+ * waits for the group-commit fsync it shares with the other tills, while its drainer saves
+ * batches to the same double off the request path. The dispatch engine is not loaded, so neither
+ * path queues the order for dispatch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class OrderIntakeBenchmark {
+
+    @Param({"1000", "50000"})
+    private int saveMicros;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong ids = new AtomicLong();
+    private List<CreateOrderRequest> requests;
+    private Path directory;
+    private DispatchEventPublisher eventPublisher;
+    private OrderIntakeService orderIntakeService;
+    private OrderService directIntake;
+    private OrderService journalIntake;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        requests = new ArrayList<>();
+        for (Order order : SyntheticOrders.waitingOrders(1024, LocalDateTime.now(), 15, 42L)) {
+            CreateOrderRequest request = new CreateOrderRequest();
+            request.setDrinkType(order.getDrinkType());
+            request.setCustomerName(order.getCustomerName());
+            request.setCustomerPhone("555-0100");
+            request.setLoyaltyCustomer(order.isLoyaltyCustomer());
+            request.setRushOrder(order.isRushOrder());
+            requests.add(request);
+        }
+
+        OrderRepository orderRepository = RepositoryDouble.of(OrderRepository.class, saveMicros)
+                .answer("save", args -> withId((Order) args[0]))
+                .answer("saveAll", args -> {
+                    List<Order> saved = new ArrayList<>();
+                    ((Iterable<?>) args[0]).forEach(order -> saved.add(withId((Order) order)));
+                    return saved;
+                })
+                .answer("findIntakeKeysIn", args -> List.of())
+                .repository();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        Clock clock = Clock.systemDefaultZone();
+        PrepTimeEstimator prepTimeEstimator = new PrepTimeEstimator();
+        DispatchEngine dispatchEngine = new DispatchEngine(orderRepository, null);
+        eventPublisher = new DispatchEventPublisher(objectMapper);
+        // a drained batch's dispatch pass would run on the dispatch worker, not on a till
+        DispatchTrigger dispatchTrigger = new DispatchTrigger(null, meterRegistry) {
+            @Override
+            public void request() {
+            }
+        };
+
+        directory = Files.createTempDirectory("intake-journal");
+        orderIntakeService = new OrderIntakeService(orderRepository, dispatchEngine, eventPublisher, dispatchTrigger,
+                new TransactionTemplate(new NoTransactionManager()), objectMapper, meterRegistry);
+        ReflectionTestUtils.setField(orderIntakeService, "intakeMode", IntakeMode.JOURNAL);
+        ReflectionTestUtils.setField(orderIntakeService, "directory", directory);
+        ReflectionTestUtils.setField(orderIntakeService, "segmentBytes", 64 * 1024 * 1024);
+        ReflectionTestUtils.setField(orderIntakeService, "batchSize", 200);
+        ReflectionTestUtils.setField(orderIntakeService, "retryMs", 1000L);
+        orderIntakeService.openJournal();
+        orderIntakeService.start();
+
+        directIntake = orderService(IntakeMode.DIRECT, orderRepository, dispatchEngine, prepTimeEstimator, clock);
+        journalIntake = orderService(IntakeMode.JOURNAL, orderRepository, dispatchEngine, prepTimeEstimator, clock);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        orderIntakeService.stop();
+        eventPublisher.shutdown();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public Order directSave() {
+        return directIntake.createOrder(nextRequest());
+    }
+
+    @Benchmark
+    public Order journaled() {
+        return journalIntake.createOrder(nextRequest());
+    }
+
+    private OrderService orderService(IntakeMode intakeMode, OrderRepository orderRepository,
+            DispatchEngine dispatchEngine, PrepTimeEstimator prepTimeEstimator, Clock clock) {
+        OrderService orderService = new OrderService(orderRepository, dispatchEngine, eventPublisher,
+                prepTimeEstimator, orderIntakeService, clock);
+        ReflectionTestUtils.setField(orderService, "intakeMode", intakeMode);
+        return orderService;
+    }
+
+    private Order withId(Order order) {
+        order.setId(ids.incrementAndGet());
+        return order;
+    }
+
+    private CreateOrderRequest nextRequest() {
+        return requests.get(next.getAndIncrement() & (requests.size() - 1));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.barista.service;
+
+import com.example.barista.SyntheticOrders;
+import com.example.barista.model.Barista;
+import com.example.barista.model.Order;
+import com.example.barista.util.PriorityIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulingSelectionBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int queueSize;
+
+    @Param({"3", "12"})
+    private int baristaCount;
+
+    private PriorityIndex waitingOrders;
+    private List<Barista> baristas;
+    private double averageWorkload;
+    private Order latestOrder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Order> orders = SyntheticOrders.waitingOrders(queueSize, now, 15, 42L);
+        waitingOrders = PriorityIndex.of(orders, now);
+        baristas = SyntheticOrders.baristas(baristaCount, 7L);
+        averageWorkload = baristas.stream().mapToInt(Barista::getWorkloadMinutes).average().orElse(0);
+        latestOrder = orders.get(orders.size() - 1);
+    }
+
+    @Benchmark
+    public void selectOrderForBarista(Blackhole blackhole) {
+        for (Barista barista : baristas) {
+            blackhole.consume(SchedulingAgentService.selectOrderForBarista(barista, waitingOrders, averageWorkload));
+        }
+    }
+
+    @Benchmark
+    public Optional<Order> getEmergencyOrder() {
+        return SchedulingAgentService.getEmergencyOrder(waitingOrders);
+    }
+
+    @Benchmark
+    public Map<Long, Integer> incrementFairnessSkips() {
+        Map<Long, Integer> skipDeltas = new HashMap<>();
+        for (int served = 0; served < baristaCount; served++) {
+            SchedulingAgentService.incrementFairnessSkips(waitingOrders, latestOrder, skipDeltas);
+        }
+        return skipDeltas;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.barista.service;
+
+import com.example.barista.SyntheticOrders;
+import com.example.barista.model.Barista;
+import com.example.barista.model.Order;
+import com.example.barista.util.PriorityIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One dispatch pass for {@code baristas} free baristas over {@code queueSize} waiting orders, with
+ * the roster and queue dealt round-robin into {@code zones} stations that plan in parallel (one
+ * thread per zone, as the zone workers do). {@code zones=1} is the unsharded pass. Planned orders
+ * are put back afterwards, so each op plans against the same queues.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZonedDispatchBenchmark {
+
+    @Param({"100"})
+    private int baristas;
+
+    @Param({"10000"})
+    private int queueSize;
+
+    @Param({"1", "4", "10"})
+    private int zones;
+
+    @Param({"greedy", "matching"})
+    private String strategy;
+
+    private final List<PriorityIndex> waitingByZone = new ArrayList<>();
+    private final List<List<Barista>> rosterByZone = new ArrayList<>();
+    private final List<Double> averageWorkloadByZone = new ArrayList<>();
+    private AssignmentStrategy assignmentStrategy;
+    private ExecutorService zoneWorkers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Order> orders = SyntheticOrders.waitingOrders(queueSize, now, 15, 42L);
+        List<Barista> roster = SyntheticOrders.baristas(baristas, 7L);
+
+        for (int zone = 0; zone < zones; zone++) {
+            List<Order> zoneOrders = new ArrayList<>();
+            for (int index = zone; index < orders.size(); index += zones) {
+                zoneOrders.add(orders.get(index));
+            }
+            List<Barista> zoneRoster = new ArrayList<>();
+            for (int index = zone; index < roster.size(); index += zones) {
+                zoneRoster.add(roster.get(index));
+            }
+            waitingByZone.add(PriorityIndex.of(zoneOrders, now));
+            rosterByZone.add(zoneRoster);
+            averageWorkloadByZone.add(zoneRoster.stream().mapToInt(Barista::getWorkloadMinutes).average().orElse(0));
+        }
+
+        assignmentStrategy = "matching".equals(strategy)
+                ? new MatchingAssignmentStrategy()
+                : new GreedyAssignmentStrategy();
+        zoneWorkers = Executors.newFixedThreadPool(zones);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        zoneWorkers.shutdownNow();
+    }
+
+    @Benchmark
+    public int dispatchPass() throws InterruptedException, ExecutionException {
+        if (zones == 1) {
+            return planAndRestore(0);
+        }
+        List<Callable<Integer>> passes = new ArrayList<>(zones);
+        for (int zone = 0; zone < zones; zone++) {
+            int zoneIndex = zone;
+            passes.add(() -> planAndRestore(zoneIndex));
+        }
+        int assigned = 0;
+        for (Future<Integer> pass : zoneWorkers.invokeAll(passes)) {
+            assigned += pass.get();
+        }
+        return assigned;
+    }
+
+    private int planAndRestore(int zone) {
+        PriorityIndex waitingOrders = waitingByZone.get(zone);
+        List<AssignmentStrategy.Assignment> plan = assignmentStrategy.plan(
+                rosterByZone.get(zone), waitingOrders, averageWorkloadByZone.get(zone)
+        );
+        for (AssignmentStrategy.Assignment assignment : plan) {
+            waitingOrders.add(assignment.getOrder());
+        }
+        return plan.size();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.barista.util;
+
+import com.example.barista.SyntheticOrders;
+import com.example.barista.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriorityCalculatorBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int queueSize;
+
+    private List<Order> orders;
+    private LocalDateTime now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        now = LocalDateTime.now();
+        orders = SyntheticOrders.waitingOrders(queueSize, now, 15, 42L);
+    }
+
+    @Benchmark
+    public void calculate(Blackhole blackhole) {
+        for (Order order : orders) {
+            blackhole.consume(PriorityCalculator.calculate(order, now));
+        }
+    }
+
+    @Benchmark
+    public List<Order> calculateAndSort() {
+        Map<Order, Double> scores = new IdentityHashMap<>();
+        orders.forEach(order -> scores.put(order, PriorityCalculator.calculate(order, now)));
+        List<Order> sorted = new ArrayList<>(orders);
+        sorted.sort(Comparator.comparingDouble(scores::get).reversed());
+        return sorted;
+    }
+
+    @Benchmark
+    public PriorityIndex buildIndex() {
+        return PriorityIndex.of(orders, now);
+    }
+}
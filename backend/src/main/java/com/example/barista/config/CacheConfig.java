@@ -0,0 +1,106 @@
+package com.example.barista.config;
+
+import com.example.barista.model.Barista;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BARISTA_ROSTER = "baristaRoster";
+    public static final String BARISTAS = "baristas";
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+
+    private static final Set<String> BARISTA_CACHES = Set.of(BARISTA_ROSTER, BARISTAS);
+
+    // Evictions from repository writes are deferred until commit, so a reader cannot re-cache
+    // the pre-write row while the writing transaction is still open. Barista caches also expire,
+    // since writes on other instances never evict them here.
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${barista.cache.baristas.max-size:1000}") long baristaMaxSize,
+            @Value("${barista.cache.baristas.ttl-seconds:10}") long baristaTtlSeconds,
+            @Value("${barista.cache.users.max-size:10000}") long userMaxSize,
+            @Value("${barista.cache.users.ttl-seconds:300}") long userTtlSeconds
+    ) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return BARISTA_CACHES.contains(name)
+                        ? new CopyingCaffeineCache(name, cache)
+                        : super.adaptCaffeineCache(name, cache);
+            }
+        };
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(BARISTA_ROSTER, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(Duration.ofSeconds(baristaTtlSeconds))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(BARISTAS, Caffeine.newBuilder()
+                .maximumSize(baristaMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(baristaTtlSeconds))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(USERS_BY_EMAIL, Caffeine.newBuilder()
+                .maximumSize(userMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(userTtlSeconds))
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * Keeps private copies of the cached baristas and hands each reader copies of its own, so the
+     * dispatcher can mutate what it loaded without other readers seeing it mid-transaction.
+     */
+    static final class CopyingCaffeineCache extends CaffeineCache {
+
+        CopyingCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+            super(name, cache, false);
+        }
+
+        @Override
+        protected Object toStoreValue(Object userValue) {
+            return super.toStoreValue(copy(userValue));
+        }
+
+        @Override
+        protected Object fromStoreValue(Object storeValue) {
+            return copy(super.fromStoreValue(storeValue));
+        }
+
+        private static Object copy(Object value) {
+            if (value instanceof Barista barista) {
+                return Barista.builder()
+                        .id(barista.getId())
+                        .name(barista.getName())
+                        .available(barista.isAvailable())
+                        .workloadMinutes(barista.getWorkloadMinutes())
+                        .currentOrderId(barista.getCurrentOrderId())
+                        .zone(barista.getZone())
+                        .version(barista.getVersion())
+                        .build();
+            }
+            if (value instanceof List<?> values) {
+                List<Object> copies = new ArrayList<>(values.size());
+                values.forEach(item -> copies.add(copy(item)));
+                return copies;
+            }
+            return value;
+        }
+    }
+}
@@ -1,26 +1,190 @@
 package com.example.barista.controller;
 
+import com.example.barista.dto.AnalyticsCaseSummaryDto;
+import com.example.barista.dto.AnalyticsOrderCompactDto;
+import com.example.barista.dto.AnalyticsOrderDto;
 import com.example.barista.dto.AnalyticsResponseDto;
+import com.example.barista.dto.AnalyticsStreamEventDto;
+import com.example.barista.dto.CapacityPlanDto;
+import com.example.barista.dto.DispatchSimulationReportDto;
+import com.example.barista.dto.OrderPageDto;
+import com.example.barista.dto.TrafficReportDto;
 import com.example.barista.service.AnalyticsService;
+import com.example.barista.service.AnalyticsStreamSink;
+import com.example.barista.service.DispatchSimulationService;
+import com.example.barista.service.OrderArchiveService;
+import com.example.barista.service.OrderRollupService;
+import com.example.barista.util.OrderTraceReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/analytics")
 @RequiredArgsConstructor
 public class AnalyticsController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final AnalyticsService analyticsService;
+    private final OrderArchiveService orderArchiveService;
+    private final DispatchSimulationService dispatchSimulationService;
+    private final OrderRollupService orderRollupService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/test-cases")
     public AnalyticsResponseDto getTestCases(
             @RequestParam(defaultValue = "10") int testCases,
             @RequestParam(defaultValue = "200") int minOrders,
-            @RequestParam(defaultValue = "300") int maxOrders
+            @RequestParam(defaultValue = "300") int maxOrders,
+            @RequestParam(required = false) Long seed
     ) {
-        return analyticsService.generateTestCases(testCases, minOrders, maxOrders);
+        return analyticsService.generateTestCases(testCases, minOrders, maxOrders, seed);
+    }
+
+    @GetMapping(value = "/test-cases", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTestCases(
+            @RequestParam(defaultValue = "10") int testCases,
+            @RequestParam(defaultValue = "200") int minOrders,
+            @RequestParam(defaultValue = "300") int maxOrders,
+            @RequestParam(required = false) Long seed,
+            @RequestParam(defaultValue = "true") boolean compact
+    ) {
+        StreamingResponseBody body = outputStream -> analyticsService.streamTestCases(
+                testCases, minOrders, maxOrders, seed, new NdjsonSink(outputStream, compact)
+        );
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    @GetMapping("/history")
+    public OrderPageDto getOrderHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        try {
+            return orderArchiveService.getHistory(from, to, cursor, limit);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    @GetMapping("/traffic")
+    public TrafficReportDto getTraffic(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "HOUR") OrderRollupService.GroupBy groupBy
+    ) {
+        try {
+            return orderRollupService.report(from, to, groupBy);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    @GetMapping("/simulate")
+    public DispatchSimulationReportDto simulateDispatch(
+            @RequestParam(defaultValue = "10000") int orders,
+            @RequestParam(defaultValue = "3") int baristas,
+            @RequestParam(defaultValue = "40") double ordersPerHour,
+            @RequestParam(defaultValue = "STEADY") DispatchSimulationService.ArrivalPattern pattern,
+            @RequestParam(defaultValue = "greedy") String strategy,
+            @RequestParam(required = false) Long seed
+    ) {
+        try {
+            return dispatchSimulationService.simulate(orders, baristas, ordersPerHour, pattern, strategy, seed);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    /**
+     * Body: a CSV or NDJSON order trace, as read by {@link OrderTraceReader}.
+     */
+    @PostMapping(value = "/capacity-plan", consumes = {"text/csv", APPLICATION_NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    public CapacityPlanDto planCapacity(
+            @RequestBody String trace,
+            @RequestParam(defaultValue = "CSV") OrderTraceReader.Format format,
+            @RequestParam(defaultValue = "1") int minBaristas,
+            @RequestParam(defaultValue = "12") int maxBaristas,
+            @RequestParam(defaultValue = "5") double targetP95WaitMinutes,
+            @RequestParam(defaultValue = "greedy") String strategy,
+            @RequestParam(defaultValue = "0") int queueDepthSampleMinutes
+    ) {
+        try {
+            return dispatchSimulationService.planCapacity(trace, format, strategy, minBaristas, maxBaristas,
+                    targetP95WaitMinutes, queueDepthSampleMinutes);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    private class NdjsonSink implements AnalyticsStreamSink {
+        private final OutputStream outputStream;
+        private final boolean compact;
+
+        NdjsonSink(OutputStream outputStream, boolean compact) {
+            this.outputStream = outputStream;
+            this.compact = compact;
+        }
+
+        @Override
+        public void order(String caseId, AnalyticsOrderDto order) {
+            Object payload = compact ? toCompact(order) : order;
+            write(new AnalyticsStreamEventDto("order", caseId, payload, null));
+        }
+
+        @Override
+        public void caseCompleted(AnalyticsCaseSummaryDto summary) {
+            write(new AnalyticsStreamEventDto("case", summary.getId(), null, summary));
+            try {
+                outputStream.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private void write(AnalyticsStreamEventDto event) {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(event));
+                outputStream.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private AnalyticsOrderCompactDto toCompact(AnalyticsOrderDto order) {
+            return new AnalyticsOrderCompactDto(
+                    order.getOrderId(),
+                    order.getCustomerName(),
+                    order.getDrinkType(),
+                    order.getBarista(),
+                    order.getArrivalTime(),
+                    order.getStartTime(),
+                    order.getCompletionTime(),
+                    order.getPriority(),
+                    order.getPrepTime(),
+                    order.getWaitingMinutes(),
+                    order.getTurnaroundMinutes()
+            );
+        }
     }
 }
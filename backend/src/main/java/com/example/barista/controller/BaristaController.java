@@ -2,7 +2,10 @@ package com.example.barista.controller;
 
 import com.example.barista.model.Barista;
 import com.example.barista.repository.BaristaRepository;
+import com.example.barista.service.DispatchEngine;
+import com.example.barista.service.DispatchEventPublisher;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -19,6 +22,11 @@ import java.util.List;
 public class BaristaController {
 
     private final BaristaRepository baristaRepository;
+    private final DispatchEngine dispatchEngine;
+    private final DispatchEventPublisher eventPublisher;
+
+    @Value("${barista.baristas.max-seed:100}")
+    private int maxSeed;
 
     @GetMapping
     public List<Barista> getBaristas() {
@@ -27,8 +35,10 @@ public class BaristaController {
 
     @PostMapping("/seed")
     @ResponseStatus(HttpStatus.CREATED)
-    public List<Barista> seedBaristas(@RequestParam(defaultValue = "3") int count) {
-        int safeCount = Math.min(Math.max(count, 1), 3);
+    public List<Barista> seedBaristas(@RequestParam(defaultValue = "3") int count,
+                                      @RequestParam(defaultValue = "1") int zones) {
+        int safeCount = Math.min(Math.max(count, 1), maxSeed);
+        int safeZones = Math.min(Math.max(zones, 1), safeCount);
         List<Barista> existing = baristaRepository.findAll();
         if (!existing.isEmpty()) {
             return existing;
@@ -38,12 +48,17 @@ public class BaristaController {
         String[] baristaNames = {"Emma", "Liam", "Sophia"};
         for (int i = 1; i <= safeCount; i++) {
             Barista barista = Barista.builder()
-                    .name(baristaNames[i - 1])
+                    .name(i <= baristaNames.length ? baristaNames[i - 1] : "Barista " + i)
                     .available(true)
                     .workloadMinutes(0)
                     .currentOrderId(null)
+                    // stations are dealt round-robin; a single station stays the default zone
+                    .zone(safeZones > 1 ? "bar-" + ((i - 1) % safeZones + 1) : null)
                     .build();
-            created.add(baristaRepository.save(barista));
+            Barista saved = baristaRepository.save(barista);
+            dispatchEngine.baristaUpdated(saved);
+            eventPublisher.baristaUpdated(saved);
+            created.add(saved);
         }
 
         return created;
@@ -1,14 +1,14 @@
 package com.example.barista.controller;
 
 import com.example.barista.dto.CreateOrderRequest;
-import com.example.barista.model.Barista;
+import com.example.barista.dto.OrderPageDto;
 import com.example.barista.model.Order;
-import com.example.barista.repository.BaristaRepository;
 import com.example.barista.service.OrderService;
 import com.example.barista.service.SchedulingAgentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -17,8 +17,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.Clock;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -27,41 +28,45 @@ public class OrderController {
 
     private final OrderService orderService;
     private final SchedulingAgentService agentService;
-    private final BaristaRepository baristaRepository;
+    private final Clock clock;
 
     @PostMapping
-    public Order createOrder(@Valid @RequestBody CreateOrderRequest request) {
-        Order saved = orderService.createOrder(request);
-        agentService.assignOrders();
-        return saved;
+    public ResponseEntity<Order> createOrder(@Valid @RequestBody CreateOrderRequest request) {
+        Order order = orderService.createOrder(request);
+        if (order.getId() == null) {
+            // journaled; the intake drainer saves it and requests the dispatch
+            return ResponseEntity.accepted().body(order);
+        }
+        agentService.requestDispatch();
+        return ResponseEntity.ok(order);
     }
 
     @GetMapping
-    public List<Order> getOrders(@RequestParam(required = false) String status) {
-        return orderService.getOrdersByStatus(status);
+    public OrderPageDto getOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "false") boolean newestFirst
+    ) {
+        try {
+            return orderService.getOrders(status, cursor, limit, newestFirst);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
     }
 
     @PostMapping("/{id}/complete")
     @ResponseStatus(HttpStatus.OK)
     public Order completeOrder(@PathVariable Long id) {
         Order order = orderService.getOrder(id)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found"));
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
 
-        order.setStatus("COMPLETED");
-        order.setCompletedAt(LocalDateTime.now());
-
-        if (order.getAssignedBaristaId() != null) {
-            Barista barista = baristaRepository.findById(order.getAssignedBaristaId())
-                    .orElse(null);
-            if (barista != null) {
-                barista.setAvailable(true);
-                barista.setCurrentOrderId(null);
-                baristaRepository.save(barista);
-            }
+        try {
+            Order saved = agentService.completeOrder(order, LocalDateTime.now(clock));
+            agentService.requestDispatch();
+            return saved;
+        } catch (IllegalStateException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, ex.getMessage());
         }
-
-        Order saved = orderService.updateOrder(order);
-        agentService.assignOrders();
-        return saved;
     }
 }
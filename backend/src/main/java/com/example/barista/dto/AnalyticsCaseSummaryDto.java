@@ -0,0 +1,21 @@
+package com.example.barista.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsCaseSummaryDto {
+
+    private String id;
+    private String label;
+    private long orderCount;
+    private double averageWaitingMinutes;
+    private double averageTurnaroundMinutes;
+    private PercentilesDto waitingPercentiles;
+    private PercentilesDto turnaroundPercentiles;
+}
@@ -0,0 +1,26 @@
+package com.example.barista.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsOrderCompactDto {
+
+    private String id;
+    private String customerName;
+    private String drinkType;
+    private String barista;
+    private LocalDateTime arrivalTime;
+    private LocalDateTime startTime;
+    private LocalDateTime completionTime;
+    private int priority;
+    private int prepTime;
+    private double waitingMinutes;
+    private double turnaroundMinutes;
+}
@@ -13,4 +13,7 @@ import java.util.List;
 public class AnalyticsResponseDto {
 
     private List<AnalyticsTestCaseDto> testCases;
+    // merged across every case
+    private PercentilesDto waitingPercentiles;
+    private PercentilesDto turnaroundPercentiles;
 }
@@ -0,0 +1,20 @@
+package com.example.barista.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalyticsStreamEventDto {
+
+    private String type; // order, case
+    private String caseId;
+    private Object order;
+    private AnalyticsCaseSummaryDto summary;
+}
@@ -17,4 +17,6 @@ public class AnalyticsTestCaseDto {
     private List<AnalyticsOrderDto> orders;
     private double averageWaitingMinutes;
     private double averageTurnaroundMinutes;
+    private PercentilesDto waitingPercentiles;
+    private PercentilesDto turnaroundPercentiles;
 }
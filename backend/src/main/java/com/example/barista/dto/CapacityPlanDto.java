@@ -0,0 +1,19 @@
+package com.example.barista.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapacityPlanDto {
+
+    private double targetP95WaitMinutes;
+    // null when even the largest roster tried misses the target
+    private Integer recommendedBaristas;
+    private List<DispatchSimulationReportDto> runs;
+}
@@ -21,4 +21,7 @@ public class CreateOrderRequest {
 
     private boolean loyaltyCustomer;
     private boolean rushOrder;
+
+    // optional; unknown or unstaffed zones are routed to the least backed-up one
+    private String zone;
 }
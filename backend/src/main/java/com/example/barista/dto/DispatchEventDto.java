@@ -0,0 +1,21 @@
+package com.example.barista.dto;
+
+import com.example.barista.model.Barista;
+import com.example.barista.model.Order;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DispatchEventDto {
+
+    private String type; // order-created, order-assigned, order-completed, barista-freed, barista-updated
+    private Order order;
+    private Barista barista;
+}
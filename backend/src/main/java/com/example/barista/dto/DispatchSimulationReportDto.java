@@ -0,0 +1,42 @@
+package com.example.barista.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DispatchSimulationReportDto {
+
+    private String strategy;
+    private int baristas;
+    private long orders;
+    private long emergencyAssignments;
+
+    private double simulatedMinutes;
+    private double throughputPerHour;
+    private double utilization;
+    private int maxQueueDepth;
+    private int queueDepthSampleMinutes;
+    private List<Integer> queueDepthCurve;
+
+    private double averageWaitMinutes;
+    private double waitP50Minutes;
+    private double waitP90Minutes;
+    private double waitP95Minutes;
+    private double waitP99Minutes;
+    private double maxWaitMinutes;
+    private double turnaroundP50Minutes;
+    private double turnaroundP99Minutes;
+
+    private double averageSkips;
+    private int maxSkips;
+    private double overtakenShare;
+    private double waitFairnessIndex;
+}
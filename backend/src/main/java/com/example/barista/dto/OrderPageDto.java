@@ -0,0 +1,17 @@
+package com.example.barista.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageDto {
+
+    private List<OrderSummaryDto> orders;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,28 @@
+package com.example.barista.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDto {
+
+    private Long id;
+    private String drinkType;
+    private int prepTime;
+    private LocalDateTime arrivalTime;
+    private String customerName;
+    private boolean loyaltyCustomer;
+    private boolean rushOrder;
+    private double priorityScore;
+    private String status;
+    private int skippedByLaterCount;
+    private Long assignedBaristaId;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
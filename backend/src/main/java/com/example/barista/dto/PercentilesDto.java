@@ -0,0 +1,21 @@
+package com.example.barista.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Minutes, read from a QuantileSketch (within 1% of the exact value).
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PercentilesDto {
+
+    private long count;
+    private double mean;
+    private double p50;
+    private double p90;
+    private double p99;
+    private double max;
+}
@@ -0,0 +1,32 @@
+package com.example.barista.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrafficGroupDto {
+
+    // ISO hour, drink type or barista name, depending on the report's groupBy
+    private String key;
+    private Long baristaId;
+    private long orders;
+
+    private double averageWaitMinutes;
+    private double waitP50Minutes;
+    private double waitP90Minutes;
+    private double waitP99Minutes;
+    private double maxWaitMinutes;
+
+    private double averageTurnaroundMinutes;
+    private double turnaroundP50Minutes;
+    private double turnaroundP90Minutes;
+    private double turnaroundP99Minutes;
+    private double maxTurnaroundMinutes;
+}
@@ -0,0 +1,24 @@
+package com.example.barista.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrafficReportDto {
+
+    private String groupBy;
+    // whole hours, by completion time; to is exclusive
+    private LocalDateTime from;
+    private LocalDateTime to;
+    // rollup cells read to build the report
+    private int buckets;
+    private TrafficGroupDto total;
+    private List<TrafficGroupDto> groups;
+}
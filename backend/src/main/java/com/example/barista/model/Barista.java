@@ -4,11 +4,13 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Getter
@@ -27,4 +29,12 @@ public class Barista {
     private int workloadMinutes;
 
     private Long currentOrderId;
+
+    // station zone the barista works in; null means the default zone
+    private String zone;
+
+    // bumped by every state transition, including the conditional claim updates in the repositories
+    @Version
+    @ColumnDefault("0")
+    private long version;
 }
@@ -1,19 +1,27 @@
 package com.example.barista.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_arrival_id", columnList = "status, arrival_time, id"),
+        @Index(name = "idx_orders_status_completed", columnList = "status, completed_at"),
+        @Index(name = "idx_orders_intake_key", columnList = "intake_key")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,6 +33,10 @@ public class Order {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // set on journaled intake, so a replayed journal entry is inserted once; null for direct saves
+    @Column(length = 36)
+    private String intakeKey;
+
     private String drinkType;
     private int prepTime; // minutes
     private LocalDateTime arrivalTime;
@@ -40,9 +52,17 @@ public class Order {
 
     private String status; // WAITING, IN_PROGRESS, COMPLETED
 
+    // station zone the order queues in; null rows predate zones and queue in the default zone
+    private String zone;
+
     private int skippedByLaterCount;
 
     private Long assignedBaristaId;
     private LocalDateTime startedAt;
     private LocalDateTime completedAt;
+
+    // bumped by every state transition, including the conditional claim updates in the repositories
+    @Version
+    @ColumnDefault("0")
+    private long version;
 }
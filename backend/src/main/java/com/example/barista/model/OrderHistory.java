@@ -0,0 +1,51 @@
+package com.example.barista.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.time.LocalDateTime;
+
+// Append-only copy of a completed order, moved out of "orders" by OrderArchiveService; keeps the original id.
+@Entity
+@Table(name = "order_history", indexes = {
+        @Index(name = "idx_order_history_completed_id", columnList = "completed_at, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderHistory {
+
+    @Id
+    private Long id;
+
+    private String drinkType;
+    private int prepTime; // minutes
+    private LocalDateTime arrivalTime;
+
+    private String customerName;
+    private String customerPhone;
+    private Long customerId;
+
+    private boolean loyaltyCustomer;
+    private boolean rushOrder;
+
+    private double priorityScore;
+
+    private String zone;
+
+    private int skippedByLaterCount;
+
+    private Long assignedBaristaId;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,53 @@
+package com.example.barista.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import java.time.LocalDateTime;
+
+// Completed-order aggregates for one hour x drink x barista cell, kept current by OrderRollupService.
+@Entity
+@Table(name = "order_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_order_rollups_cell", columnNames = {"hour_start", "drink_type", "barista_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // completion hour
+    private LocalDateTime hourStart;
+    private String drinkType;
+    private Long baristaId;
+
+    private long completedOrders;
+
+    // QuantileSketch bytes, in seconds
+    @Column(columnDefinition = "varbinary(max)")
+    private byte[] waitSketch;
+
+    @Column(columnDefinition = "varbinary(max)")
+    private byte[] turnaroundSketch;
+
+    // concurrent flushes from several instances retry instead of losing each other's counts
+    @Version
+    @ColumnDefault("0")
+    private long version;
+}
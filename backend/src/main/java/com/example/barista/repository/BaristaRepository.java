@@ -1,7 +1,60 @@
 package com.example.barista.repository;
 
+import com.example.barista.config.CacheConfig;
 import com.example.barista.model.Barista;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
+// Roster and per-id reads are cached; every write below evicts both caches.
 public interface BaristaRepository extends JpaRepository<Barista, Long> {
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BARISTA_ROSTER, key = "'all'")
+    List<Barista> findAll();
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BARISTAS, key = "#p0", unless = "#result == null")
+    Optional<Barista> findById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.BARISTA_ROSTER, CacheConfig.BARISTAS}, allEntries = true)
+    <S extends Barista> S save(S barista);
+
+    // READPAST skips a row another dispatcher holds, so a contended barista counts as taken instead of blocking.
+    @CacheEvict(cacheNames = {CacheConfig.BARISTA_ROSTER, CacheConfig.BARISTAS}, allEntries = true)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = "update barista with (readpast, rowlock) "
+            + "set available = 0, version = version + 1 where id = :id and available = 1")
+    int claimAvailable(@Param("id") Long id);
+
+    @CacheEvict(cacheNames = {CacheConfig.BARISTA_ROSTER, CacheConfig.BARISTAS}, allEntries = true)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = "update barista set current_order_id = :orderId, "
+            + "workload_minutes = workload_minutes + :prepTime, version = version + 1 where id = :id")
+    int assignClaimed(@Param("id") Long id, @Param("orderId") Long orderId, @Param("prepTime") int prepTime);
+
+    @CacheEvict(cacheNames = {CacheConfig.BARISTA_ROSTER, CacheConfig.BARISTAS}, allEntries = true)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = "update barista set available = 1, version = version + 1 "
+            + "where id = :id and available = 0 and current_order_id is null")
+    int releaseUnassigned(@Param("id") Long id);
+
+    @CacheEvict(cacheNames = {CacheConfig.BARISTA_ROSTER, CacheConfig.BARISTAS}, allEntries = true)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = "update barista set available = 1, current_order_id = null, "
+            + "version = version + 1 where id = :id and current_order_id = :orderId")
+    int releaseFromOrder(@Param("id") Long id, @Param("orderId") Long orderId);
+
+    @CacheEvict(cacheNames = {CacheConfig.BARISTA_ROSTER, CacheConfig.BARISTAS}, allEntries = true)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = "update barista set available = 1, current_order_id = null, "
+            + "version = version + 1 where current_order_id in (:orderIds)")
+    int releaseFromOrders(@Param("orderIds") Collection<Long> orderIds);
 }
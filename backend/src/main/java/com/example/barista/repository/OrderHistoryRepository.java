@@ -0,0 +1,46 @@
+package com.example.barista.repository;
+
+import com.example.barista.dto.OrderSummaryDto;
+import com.example.barista.model.OrderHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderHistoryRepository extends JpaRepository<OrderHistory, Long> {
+
+    String SUMMARY_SELECT = "select new com.example.barista.dto.OrderSummaryDto("
+            + "h.id, h.drinkType, h.prepTime, h.arrivalTime, h.customerName, h.loyaltyCustomer, h.rushOrder, "
+            + "h.priorityScore, 'COMPLETED', h.skippedByLaterCount, h.assignedBaristaId, h.startedAt, h.completedAt) "
+            + "from OrderHistory h ";
+
+    // Server-side copy, so a batch never round-trips through the persistence context.
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into order_history (id, drink_type, prep_time, arrival_time, "
+            + "customer_name, customer_phone, customer_id, loyalty_customer, rush_order, priority_score, zone, "
+            + "skipped_by_later_count, assigned_barista_id, started_at, completed_at, archived_at) "
+            + "select id, drink_type, prep_time, arrival_time, customer_name, customer_phone, customer_id, "
+            + "loyalty_customer, rush_order, priority_score, zone, skipped_by_later_count, assigned_barista_id, "
+            + "started_at, completed_at, :archivedAt from orders where id in (:ids) and status = 'COMPLETED'")
+    int copyCompletedOrders(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Query(SUMMARY_SELECT
+            + "where h.completedAt >= :from and h.completedAt < :to"
+            + " order by h.completedAt, h.id")
+    List<OrderSummaryDto> findSummariesCompletedBetween(@Param("from") LocalDateTime from,
+                                                        @Param("to") LocalDateTime to,
+                                                        Pageable page);
+
+    @Query(SUMMARY_SELECT
+            + "where h.completedAt < :to and (h.completedAt > :completedAt"
+            + " or (h.completedAt = :completedAt and h.id > :id))"
+            + " order by h.completedAt, h.id")
+    List<OrderSummaryDto> findSummariesCompletedAfter(@Param("completedAt") LocalDateTime completedAt,
+                                                      @Param("id") Long id,
+                                                      @Param("to") LocalDateTime to,
+                                                      Pageable page);
+}
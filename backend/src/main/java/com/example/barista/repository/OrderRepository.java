@@ -1,11 +1,116 @@
 package com.example.barista.repository;
 
+import com.example.barista.dto.OrderSummaryDto;
 import com.example.barista.model.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    // Keyset pages over idx_orders_status_arrival_id; the Pageable only carries the page size.
+    String SUMMARY_SELECT = "select new com.example.barista.dto.OrderSummaryDto("
+            + "o.id, o.drinkType, o.prepTime, o.arrivalTime, o.customerName, o.loyaltyCustomer, o.rushOrder, "
+            + "o.priorityScore, o.status, o.skippedByLaterCount, o.assignedBaristaId, o.startedAt, o.completedAt) "
+            + "from Order o ";
+
     List<Order> findByStatus(String status);
 
     List<Order> findByStatusOrderByArrivalTimeAsc(String status);
+
+    long countByStatus(String status);
+
+    long countByStatusAndArrivalTimeLessThanEqual(String status, LocalDateTime arrivalTime);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.skippedByLaterCount = o.skippedByLaterCount + :delta where o.id in :ids")
+    int incrementSkippedByLaterCount(@Param("ids") Collection<Long> ids, @Param("delta") int delta);
+
+    @Query("select o.intakeKey from Order o where o.intakeKey in :keys")
+    List<String> findIntakeKeysIn(@Param("keys") Collection<String> keys);
+
+    @Query("select o.status from Order o where o.id = :id")
+    Optional<String> findStatusById(@Param("id") Long id);
+
+    // Conditional state transitions: 0 rows means another dispatcher or instance got there first,
+    // or, for a claim, that another transaction holds the row right now (READPAST skips it).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = "update orders with (readpast, rowlock) set status = 'IN_PROGRESS', "
+            + "assigned_barista_id = :baristaId, started_at = :startedAt, prep_time = :prepTime, "
+            + "priority_score = :priorityScore, skipped_by_later_count = skipped_by_later_count + :pendingSkips, version = version + 1 "
+            + "where id = :id and status = 'WAITING'")
+    int claimWaiting(@Param("id") Long id,
+                     @Param("baristaId") Long baristaId,
+                     @Param("startedAt") LocalDateTime startedAt,
+                     @Param("prepTime") int prepTime,
+                     @Param("priorityScore") double priorityScore,
+                     @Param("pendingSkips") int pendingSkips);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = "update orders set status = 'COMPLETED', completed_at = :completedAt, "
+            + "version = version + 1 where id = :id and status = 'IN_PROGRESS'")
+    int completeInProgress(@Param("id") Long id, @Param("completedAt") LocalDateTime completedAt);
+
+    // UPDLOCK + READPAST: rows another sweep or timer holds are skipped, the rest stay ours until commit.
+    @Query(nativeQuery = true, value = "select * from orders with (updlock, readpast, rowlock) "
+            + "where status = 'IN_PROGRESS' "
+            + "and dateadd(second, prep_time * :secondsPerPrepMinute, started_at) <= :now")
+    List<Order> lockDueInProgress(@Param("now") LocalDateTime now,
+                                  @Param("secondsPerPrepMinute") int secondsPerPrepMinute);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = "update orders set status = 'COMPLETED', completed_at = :completedAt, "
+            + "version = version + 1 where id in (:ids) and status = 'IN_PROGRESS'")
+    int completeAllInProgress(@Param("ids") Collection<Long> ids, @Param("completedAt") LocalDateTime completedAt);
+
+    @Query("select o.id from Order o where o.status = 'COMPLETED' and o.completedAt < :cutoff"
+            + " order by o.completedAt, o.id")
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff, Pageable page);
+
+    @Modifying
+    @Query("delete from Order o where o.id in :ids and o.status = 'COMPLETED'")
+    int deleteCompletedByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(SUMMARY_SELECT + "order by o.status, o.arrivalTime, o.id")
+    List<OrderSummaryDto> findSummaries(Pageable page);
+
+    @Query(SUMMARY_SELECT
+            + "where o.status > :status"
+            + " or (o.status = :status and (o.arrivalTime > :arrivalTime"
+            + " or (o.arrivalTime = :arrivalTime and o.id > :id)))"
+            + " order by o.status, o.arrivalTime, o.id")
+    List<OrderSummaryDto> findSummariesAfter(@Param("status") String status,
+                                             @Param("arrivalTime") LocalDateTime arrivalTime,
+                                             @Param("id") Long id,
+                                             Pageable page);
+
+    @Query(SUMMARY_SELECT + "where o.status = :status order by o.arrivalTime, o.id")
+    List<OrderSummaryDto> findSummariesByStatus(@Param("status") String status, Pageable page);
+
+    @Query(SUMMARY_SELECT
+            + "where o.status = :status and (o.arrivalTime > :arrivalTime"
+            + " or (o.arrivalTime = :arrivalTime and o.id > :id))"
+            + " order by o.arrivalTime, o.id")
+    List<OrderSummaryDto> findSummariesByStatusAfter(@Param("status") String status,
+                                                     @Param("arrivalTime") LocalDateTime arrivalTime,
+                                                     @Param("id") Long id,
+                                                     Pageable page);
+
+    @Query(SUMMARY_SELECT + "where o.status = :status order by o.arrivalTime desc, o.id desc")
+    List<OrderSummaryDto> findSummariesByStatusNewestFirst(@Param("status") String status, Pageable page);
+
+    @Query(SUMMARY_SELECT
+            + "where o.status = :status and (o.arrivalTime < :arrivalTime"
+            + " or (o.arrivalTime = :arrivalTime and o.id < :id))"
+            + " order by o.arrivalTime desc, o.id desc")
+    List<OrderSummaryDto> findSummariesByStatusBefore(@Param("status") String status,
+                                                      @Param("arrivalTime") LocalDateTime arrivalTime,
+                                                      @Param("id") Long id,
+                                                      Pageable page);
 }
@@ -0,0 +1,15 @@
+package com.example.barista.repository;
+
+import com.example.barista.model.OrderRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, Long> {
+
+    Optional<OrderRollup> findByHourStartAndDrinkTypeAndBaristaId(LocalDateTime hourStart, String drinkType,
+                                                                  Long baristaId);
+
+    List<OrderRollup> findByHourStartGreaterThanEqualAndHourStartLessThan(LocalDateTime from, LocalDateTime to);
+}
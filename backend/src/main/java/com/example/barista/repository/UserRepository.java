@@ -1,10 +1,21 @@
 package com.example.barista.repository;
 
+import com.example.barista.config.CacheConfig;
 import com.example.barista.model.User;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "#p0", unless = "#result == null")
     Optional<User> findByEmail(String email);
+
     boolean existsByEmail(String email);
+
+    // all entries: a save that changes the email must drop the entry under the old email as well
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, allEntries = true)
+    <S extends User> S save(S user);
 }
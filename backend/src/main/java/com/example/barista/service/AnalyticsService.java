@@ -1,32 +1,64 @@
 package com.example.barista.service;
 
+import com.example.barista.dto.AnalyticsCaseSummaryDto;
 import com.example.barista.dto.AnalyticsOrderDto;
 import com.example.barista.dto.AnalyticsResponseDto;
 import com.example.barista.dto.AnalyticsTestCaseDto;
+import com.example.barista.dto.PercentilesDto;
+import com.example.barista.util.ArrivalRateProfile;
+import com.example.barista.util.BaristaQueueKernel;
+import com.example.barista.util.QuantileSketch;
+import com.example.barista.util.WorkloadGenerator;
+import jakarta.annotation.PreDestroy;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.PriorityQueue;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class AnalyticsService {
 
+    // prep times spread around the same menu defaults the live intake starts from
     private static final List<DrinkProfile> DRINKS = List.of(
-            new DrinkProfile("Cold Brew", 2, 5),
-            new DrinkProfile("Espresso", 1, 4),
-            new DrinkProfile("Americano", 2, 5),
-            new DrinkProfile("Cappuccino", 3, 6),
-            new DrinkProfile("Latte", 3, 7),
-            new DrinkProfile("Mocha", 4, 8)
+            DrinkProfile.around("Cold Brew"),
+            DrinkProfile.around("Espresso"),
+            DrinkProfile.around("Americano"),
+            DrinkProfile.around("Cappuccino"),
+            DrinkProfile.around("Latte"),
+            DrinkProfile.around("Mocha")
     );
 
+    // each case is a morning shift: 06:00 to 12:00 of a rush-shaped day
+    private static final ArrivalRateProfile CASE_ARRIVALS = ArrivalRateProfile.morningRush(1);
+    private static final LocalTime CASE_OPENS_AT = LocalTime.of(6, 0);
+    private static final Duration CASE_LENGTH = Duration.ofHours(6);
+
+    private static final Comparator<QueuedOrder> SERVICE_ORDER = Comparator
+            .comparingInt((QueuedOrder queued) -> -queued.spec.getPriority())
+            .thenComparingLong(queued -> queued.arrivalMinute)
+            .thenComparingInt(queued -> queued.spec.getSequence());
+
+    // one kernel per simulation thread, grown to the largest queue it has simulated and reused after
+    private static final ThreadLocal<BaristaQueueKernel> KERNELS =
+            ThreadLocal.withInitial(() -> new BaristaQueueKernel(16));
+
     private static final List<String> BARISTAS = List.of(
             "Ava",
             "Noah",
@@ -35,154 +67,292 @@ public class AnalyticsService {
             "Ivy"
     );
 
+    @Value("${barista.analytics.max-test-cases:200}")
+    private int maxTestCases = 200;
+
+    @Value("${barista.analytics.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool simulationPool;
+
+    public AnalyticsService() {
+    }
+
+    AnalyticsService(int maxTestCases, int parallelism) {
+        this.maxTestCases = maxTestCases;
+        this.parallelism = parallelism;
+    }
+
     public AnalyticsResponseDto generateTestCases(int testCaseCount, int minOrders, int maxOrders) {
-        int safeCases = clamp(testCaseCount, 1, 20);
+        return generateTestCases(testCaseCount, minOrders, maxOrders, null);
+    }
+
+    public AnalyticsResponseDto generateTestCases(int testCaseCount, int minOrders, int maxOrders, Long seed) {
+        int safeCases = clamp(testCaseCount, 1, maxTestCases);
+        int safeMin = Math.max(1, minOrders);
+        int safeMax = Math.max(safeMin, maxOrders);
+
+        LocalDateTime now = LocalDateTime.now();
+        SplittableRandom root = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+        List<SplittableRandom> caseRandoms = new ArrayList<>(safeCases);
+        for (int caseIndex = 0; caseIndex < safeCases; caseIndex++) {
+            caseRandoms.add(root.split());
+        }
+
+        List<CaseResult> results = simulationPool().submit(() ->
+                IntStream.range(0, safeCases)
+                        .parallel()
+                        .mapToObj(caseIndex -> buildTestCase(
+                                caseIndex, safeCases, safeMin, safeMax, now, caseRandoms.get(caseIndex)
+                        ))
+                        .collect(Collectors.toList())
+        ).join();
+
+        List<AnalyticsTestCaseDto> cases = new ArrayList<>(results.size());
+        Latency overall = new Latency();
+        for (CaseResult result : results) {
+            cases.add(result.getTestCase());
+            overall.merge(result.getLatency());
+        }
+        return new AnalyticsResponseDto(cases, percentiles(overall.waiting), percentiles(overall.turnaround));
+    }
+
+    /**
+     * Same cases as {@link #generateTestCases(int, int, int, Long)} for the same seed, simulated as
+     * the arrivals are generated: each order goes to {@code sink} when its barista starts it, so
+     * only orders still queued are held, however large the case. Orders arrive in start order per
+     * barista, interleaved across baristas; exact ties go to the earlier generated order, as they do
+     * in the batch path.
+     */
+    public void streamTestCases(int testCaseCount, int minOrders, int maxOrders, Long seed, AnalyticsStreamSink sink) {
+        int safeCases = clamp(testCaseCount, 1, maxTestCases);
         int safeMin = Math.max(1, minOrders);
         int safeMax = Math.max(safeMin, maxOrders);
 
-        List<AnalyticsTestCaseDto> cases = new ArrayList<>();
         LocalDateTime now = LocalDateTime.now();
+        SplittableRandom root = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
 
         for (int caseIndex = 0; caseIndex < safeCases; caseIndex++) {
-            int orderCount = randomBetween(safeMin, safeMax);
-            LocalDateTime baseDate = now.minusDays(safeCases - 1L - caseIndex);
-            List<OrderSpec> specs = buildOrderSpecs(orderCount, baseDate, caseIndex);
-            SimulationResult result = simulateSchedule(specs);
-            AnalyticsTestCaseDto testCase = new AnalyticsTestCaseDto(
-                "case-" + (caseIndex + 1),
+            SplittableRandom random = root.split();
+            int orderCount = randomBetween(random, safeMin, safeMax);
+            LocalDateTime caseStart = caseStart(now, safeCases, caseIndex);
+            Iterator<OrderSpec> specs = orderSpecs(orderCount, caseStart, caseIndex, random);
+
+            String caseId = "case-" + (caseIndex + 1);
+            Latency latency = new Latency();
+            Consumer<AnalyticsOrderDto> started = order -> {
+                latency.add(order);
+                sink.order(caseId, order);
+            };
+            Map<String, StreamingQueue> queues = new TreeMap<>();
+            while (specs.hasNext()) {
+                OrderSpec spec = specs.next();
+                queues.computeIfAbsent(spec.getBarista(), barista -> new StreamingQueue(caseStart, started))
+                        .arrive(spec);
+            }
+            queues.values().forEach(StreamingQueue::finish);
+
+            sink.caseCompleted(new AnalyticsCaseSummaryDto(
+                caseId,
                 "Test Case " + (caseIndex + 1),
-                result.getOrders(),
-                result.getAverageWaitingMinutes(),
-                result.getAverageTurnaroundMinutes()
-            );
-            cases.add(testCase);
-        }
-
-        return new AnalyticsResponseDto(cases);
-    }
-
-    private List<OrderSpec> buildOrderSpecs(int count, LocalDateTime baseDate, int caseIndex) {
-        List<OrderSpec> specs = new ArrayList<>();
-        for (int index = 0; index < count; index++) {
-            DrinkProfile drink = pickRandom(DRINKS);
-            String barista = pickRandom(BARISTAS);
-            int offsetMinutes = randomBetween(0, 360);
-            LocalDateTime arrivalTime = baseDate.plusMinutes(offsetMinutes);
-            int priority = randomBetween(1, 5);
-            int prepTime = buildPrepTime(drink);
-            String orderId = String.format("TC%d-%03d", caseIndex + 1, index + 1);
-
-            specs.add(new OrderSpec(
-                    orderId,
-                    "Customer " + (index + 1),
-                    drink.getName(),
-                    barista,
-                    arrivalTime,
-                    priority,
-                    prepTime
+                latency.waiting.getCount(),
+                latency.waiting.getMean(),
+                latency.turnaround.getMean(),
+                percentiles(latency.waiting),
+                percentiles(latency.turnaround)
             ));
         }
-
-        specs.sort(Comparator.comparing(OrderSpec::getArrivalTime));
-        return specs;
     }
 
-    private SimulationResult simulateSchedule(List<OrderSpec> specs) {
-        Map<String, List<OrderSpec>> byBarista = specs.stream()
-            .collect(Collectors.groupingBy(OrderSpec::getBarista));
-
-        List<AnalyticsOrderDto> scheduled = new ArrayList<>();
-        for (List<OrderSpec> baristaOrders : byBarista.values()) {
-            scheduled.addAll(simulateBaristaQueue(baristaOrders));
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (simulationPool != null) {
+            simulationPool.shutdown();
         }
+    }
 
-        double totalWait = scheduled.stream().mapToDouble(AnalyticsOrderDto::getWaitingMinutes).sum();
-        double totalTurnaround = scheduled.stream().mapToDouble(AnalyticsOrderDto::getTurnaroundMinutes).sum();
-        double avgWait = scheduled.isEmpty() ? 0 : totalWait / scheduled.size();
-        double avgTurnaround = scheduled.isEmpty() ? 0 : totalTurnaround / scheduled.size();
+    private CaseResult buildTestCase(
+            int caseIndex, int caseCount, int minOrders, int maxOrders, LocalDateTime now, SplittableRandom random
+    ) {
+        int orderCount = randomBetween(random, minOrders, maxOrders);
+        LocalDateTime caseStart = caseStart(now, caseCount, caseIndex);
+        SimulationResult result = simulateSchedule(orderSpecs(orderCount, caseStart, caseIndex, random));
+        Latency latency = result.getLatency();
+        return new CaseResult(new AnalyticsTestCaseDto(
+            "case-" + (caseIndex + 1),
+            "Test Case " + (caseIndex + 1),
+            result.getOrders(),
+            latency.waiting.getMean(),
+            latency.turnaround.getMean(),
+            percentiles(latency.waiting),
+            percentiles(latency.turnaround)
+        ), latency);
+    }
 
-        scheduled.sort(Comparator.comparing(AnalyticsOrderDto::getArrivalTime));
-        return new SimulationResult(scheduled, avgWait, avgTurnaround);
+    private synchronized ForkJoinPool simulationPool() {
+        if (simulationPool == null) {
+            int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+            simulationPool = new ForkJoinPool(threads);
+        }
+        return simulationPool;
     }
 
-        private List<AnalyticsOrderDto> simulateBaristaQueue(List<OrderSpec> specs) {
-        List<OrderSpec> orderedSpecs = new ArrayList<>(specs);
-        orderedSpecs.sort(Comparator.comparing(OrderSpec::getArrivalTime));
+    private static LocalDateTime caseStart(LocalDateTime now, int caseCount, int caseIndex) {
+        return now.toLocalDate().minusDays(caseCount - 1L - caseIndex).atTime(CASE_OPENS_AT);
+    }
 
-        PriorityQueue<OrderSpec> readyQueue = new PriorityQueue<>(
-            Comparator.comparingInt(OrderSpec::getPriority).reversed()
-                .thenComparing(OrderSpec::getArrivalTime)
-                .thenComparing(OrderSpec::getOrderId)
+    /**
+     * The case's orders, drawn lazily in arrival order: whole-minute arrival times from the
+     * morning-rush profile, then drink, barista, priority and prep time from {@code random}.
+     */
+    private Iterator<OrderSpec> orderSpecs(int count, LocalDateTime caseStart, int caseIndex, SplittableRandom random) {
+        WorkloadGenerator arrivals = WorkloadGenerator.fixedCount(
+                CASE_ARRIVALS, caseStart, CASE_LENGTH, count, random.nextLong()
         );
+        return new Iterator<>() {
+            private int index;
 
-        List<AnalyticsOrderDto> scheduled = new ArrayList<>();
-        int index = 0;
-        LocalDateTime currentTime = orderedSpecs.isEmpty()
-            ? LocalDateTime.now()
-            : orderedSpecs.get(0).getArrivalTime();
-
-        while (index < orderedSpecs.size() || !readyQueue.isEmpty()) {
-            while (index < orderedSpecs.size()
-                && !orderedSpecs.get(index).getArrivalTime().isAfter(currentTime)) {
-            readyQueue.offer(orderedSpecs.get(index));
-            index++;
+            @Override
+            public boolean hasNext() {
+                return arrivals.hasNext();
             }
 
-            if (readyQueue.isEmpty()) {
-            currentTime = orderedSpecs.get(index).getArrivalTime();
-            continue;
+            @Override
+            public OrderSpec next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                LocalDateTime arrivalTime = arrivals.next().truncatedTo(ChronoUnit.MINUTES);
+                DrinkProfile drink = pickRandom(random, DRINKS);
+                String barista = pickRandom(random, BARISTAS);
+                int priority = randomBetween(random, 1, 5);
+                int prepTime = buildPrepTime(random, drink);
+                int sequence = index++;
+                return new OrderSpec(
+                        String.format("TC%d-%03d", caseIndex + 1, index),
+                        "Customer " + index,
+                        drink.getName(),
+                        barista,
+                        arrivalTime,
+                        priority,
+                        prepTime,
+                        sequence
+                );
             }
+        };
+    }
 
-            OrderSpec next = readyQueue.poll();
-            LocalDateTime startTime = currentTime.isAfter(next.getArrivalTime())
-                ? currentTime
-                : next.getArrivalTime();
-            LocalDateTime completionTime = startTime.plusMinutes(next.getPrepTime());
-
-            long waitingMinutes = java.time.Duration.between(next.getArrivalTime(), startTime).toMinutes();
-            long turnaroundMinutes = java.time.Duration.between(next.getArrivalTime(), completionTime).toMinutes();
-
-            AnalyticsOrderDto order = new AnalyticsOrderDto(
-                next.getOrderId(),
-                next.getCustomerName(),
-                next.getDrinkType(),
-                next.getBarista(),
-                next.getArrivalTime(),
-                completionTime,
-                waitingMinutes,
-                next.getOrderId(),
-                next.getArrivalTime(),
-                next.getPriority(),
-                next.getPrepTime(),
-                startTime,
-                completionTime,
-                waitingMinutes,
-                turnaroundMinutes
-            );
-            scheduled.add(order);
-            currentTime = completionTime;
+    // Runs on the simulation pool, so the per-barista parallel stream forks into it too. Each
+    // barista queue feeds its own sketches, merged here.
+    private SimulationResult simulateSchedule(Iterator<OrderSpec> specs) {
+        Map<String, List<OrderSpec>> byBarista = new TreeMap<>();
+        int count = 0;
+        while (specs.hasNext()) {
+            OrderSpec spec = specs.next();
+            byBarista.computeIfAbsent(spec.getBarista(), barista -> new ArrayList<>()).add(spec);
+            count++;
+        }
+
+        List<SimulationResult> queues = byBarista.values().parallelStream()
+            .map(baristaOrders -> {
+                List<AnalyticsOrderDto> orders = new ArrayList<>(baristaOrders.size());
+                Latency latency = new Latency();
+                simulateBaristaQueue(baristaOrders, order -> {
+                    orders.add(order);
+                    latency.add(order);
+                });
+                return new SimulationResult(orders, latency);
+            })
+            .collect(Collectors.toList());
+
+        List<AnalyticsOrderDto> scheduled = new ArrayList<>(count);
+        Latency latency = new Latency();
+        for (SimulationResult queue : queues) {
+            scheduled.addAll(queue.getOrders());
+            latency.merge(queue.getLatency());
         }
 
+        scheduled.sort(Comparator.comparing(AnalyticsOrderDto::getArrivalTime));
+        return new SimulationResult(scheduled, latency);
+    }
+
+    List<AnalyticsOrderDto> simulateBaristaQueue(List<OrderSpec> specs) {
+        List<AnalyticsOrderDto> scheduled = new ArrayList<>(specs.size());
+        simulateBaristaQueue(specs, scheduled::add);
         return scheduled;
+    }
+
+    private void simulateBaristaQueue(List<OrderSpec> specs, Consumer<AnalyticsOrderDto> sink) {
+        if (specs.isEmpty()) {
+            return;
         }
 
-    private int randomBetween(int min, int max) {
-        return ThreadLocalRandom.current().nextInt(min, max + 1);
+        LocalDateTime origin = specs.get(0).getArrivalTime();
+        for (OrderSpec spec : specs) {
+            if (spec.getArrivalTime().isBefore(origin)) {
+                origin = spec.getArrivalTime();
+            }
+        }
+
+        BaristaQueueKernel kernel = KERNELS.get();
+        kernel.reset();
+        for (OrderSpec spec : specs) {
+            kernel.add(
+                Duration.between(origin, spec.getArrivalTime()).toMinutes(),
+                spec.getPriority(),
+                spec.getPrepTime(),
+                spec.getSequence()
+            );
+        }
+        kernel.run();
+
+        for (int position = 0; position < kernel.size(); position++) {
+            int index = kernel.servedAt(position);
+            sink.accept(toOrderDto(
+                specs.get(index),
+                origin.plusMinutes(kernel.startMinute(index)),
+                origin.plusMinutes(kernel.completionMinute(index))
+            ));
+        }
+    }
+
+    private static AnalyticsOrderDto toOrderDto(OrderSpec spec, LocalDateTime startTime, LocalDateTime completionTime) {
+        long waitingMinutes = Duration.between(spec.getArrivalTime(), startTime).toMinutes();
+
+        return new AnalyticsOrderDto(
+            spec.getOrderId(),
+            spec.getCustomerName(),
+            spec.getDrinkType(),
+            spec.getBarista(),
+            spec.getArrivalTime(),
+            completionTime,
+            waitingMinutes,
+            spec.getOrderId(),
+            spec.getArrivalTime(),
+            spec.getPriority(),
+            spec.getPrepTime(),
+            startTime,
+            completionTime,
+            waitingMinutes,
+            Duration.between(spec.getArrivalTime(), completionTime).toMinutes()
+        );
+    }
+
+    private int randomBetween(SplittableRandom random, int min, int max) {
+        return random.nextInt(min, max + 1);
     }
 
-    private int buildPrepTime(DrinkProfile drink) {
-        int base = randomBetween(drink.getMinWait(), drink.getMaxWait());
-        int buffer = randomBetween(0, 2);
-        int waitMinutes = base + buffer;
-        boolean addOverage = ThreadLocalRandom.current().nextInt(100) < 3;
+    private int buildPrepTime(SplittableRandom random, DrinkProfile drink) {
+        int prepMinutes = randomBetween(random, drink.getMinPrepMinutes(), drink.getMaxPrepMinutes());
+        boolean addOverage = random.nextInt(100) < 3;
         if (addOverage) {
-            waitMinutes += randomBetween(1, 3);
+            prepMinutes += randomBetween(random, 1, 3);
         }
-        return Math.max(1, waitMinutes);
+        return Math.max(1, prepMinutes);
     }
 
-    private <T> T pickRandom(List<T> items) {
-        return items.get(randomBetween(0, items.size() - 1));
+    private <T> T pickRandom(SplittableRandom random, List<T> items) {
+        return items.get(randomBetween(random, 0, items.size() - 1));
     }
 
     private int clamp(int value, int min, int max) {
@@ -193,13 +363,18 @@ public class AnalyticsService {
     @AllArgsConstructor
     private static class DrinkProfile {
         private final String name;
-        private final int minWait;
-        private final int maxWait;
+        private final int minPrepMinutes;
+        private final int maxPrepMinutes;
+
+        static DrinkProfile around(String name) {
+            int minutes = PrepTimeEstimator.defaultMinutes(name);
+            return new DrinkProfile(name, Math.max(1, minutes - 1), minutes + 1);
+        }
     }
 
     @Getter
     @AllArgsConstructor
-    private static class OrderSpec {
+    static class OrderSpec {
         private final String orderId;
         private final String customerName;
         private final String drinkType;
@@ -207,13 +382,97 @@ public class AnalyticsService {
         private final LocalDateTime arrivalTime;
         private final int priority;
         private final int prepTime;
+        // position in the generated case; breaks exact priority and arrival ties
+        private final int sequence;
+    }
+
+    private static PercentilesDto percentiles(QuantileSketch minutes) {
+        return new PercentilesDto(
+            minutes.getCount(),
+            minutes.getMean(),
+            minutes.quantile(0.50),
+            minutes.quantile(0.90),
+            minutes.quantile(0.99),
+            minutes.getMax()
+        );
+    }
+
+    // Waiting and turnaround minutes as mergeable sketches, so cases and barista queues combine
+    // without keeping their orders.
+    private static class Latency {
+        private final QuantileSketch waiting = new QuantileSketch();
+        private final QuantileSketch turnaround = new QuantileSketch();
+
+        void add(AnalyticsOrderDto order) {
+            waiting.add(order.getWaitingMinutes());
+            turnaround.add(order.getTurnaroundMinutes());
+        }
+
+        void merge(Latency other) {
+            waiting.merge(other.waiting);
+            turnaround.merge(other.turnaround);
+        }
+    }
+
+    // One barista's queue on the streaming path, fed in arrival order: orders are served by the
+    // same rule as BaristaQueueKernel, and only the ones still waiting are held.
+    private static class StreamingQueue {
+        private final LocalDateTime origin;
+        private final Consumer<AnalyticsOrderDto> sink;
+        private final PriorityQueue<QueuedOrder> waiting = new PriorityQueue<>(SERVICE_ORDER);
+        // every waiting order arrived at or before this minute
+        private long freeAtMinute = Long.MIN_VALUE;
+
+        StreamingQueue(LocalDateTime origin, Consumer<AnalyticsOrderDto> sink) {
+            this.origin = origin;
+            this.sink = sink;
+        }
+
+        void arrive(OrderSpec spec) {
+            long arrivalMinute = Duration.between(origin, spec.getArrivalTime()).toMinutes();
+            serveBefore(arrivalMinute);
+            if (waiting.isEmpty()) {
+                freeAtMinute = Math.max(freeAtMinute, arrivalMinute);
+            }
+            waiting.add(new QueuedOrder(spec, arrivalMinute));
+        }
+
+        void finish() {
+            serveBefore(Long.MAX_VALUE);
+        }
+
+        // Starts orders while the barista frees up before minute; later arrivals may still outrank them.
+        private void serveBefore(long minute) {
+            while (!waiting.isEmpty() && freeAtMinute < minute) {
+                QueuedOrder next = waiting.poll();
+                long completionMinute = freeAtMinute + next.spec.getPrepTime();
+                sink.accept(toOrderDto(
+                    next.spec,
+                    origin.plusMinutes(freeAtMinute),
+                    origin.plusMinutes(completionMinute)
+                ));
+                freeAtMinute = completionMinute;
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private static class QueuedOrder {
+        private final OrderSpec spec;
+        private final long arrivalMinute;
     }
 
     @Getter
     @AllArgsConstructor
     private static class SimulationResult {
         private final List<AnalyticsOrderDto> orders;
-        private final double averageWaitingMinutes;
-        private final double averageTurnaroundMinutes;
+        private final Latency latency;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CaseResult {
+        private final AnalyticsTestCaseDto testCase;
+        private final Latency latency;
     }
 }
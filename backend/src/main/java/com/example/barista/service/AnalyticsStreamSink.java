@@ -0,0 +1,11 @@
+package com.example.barista.service;
+
+import com.example.barista.dto.AnalyticsCaseSummaryDto;
+import com.example.barista.dto.AnalyticsOrderDto;
+
+public interface AnalyticsStreamSink {
+
+    void order(String caseId, AnalyticsOrderDto order);
+
+    void caseCompleted(AnalyticsCaseSummaryDto summary);
+}
@@ -0,0 +1,27 @@
+package com.example.barista.service;
+
+import com.example.barista.model.Barista;
+import com.example.barista.model.Order;
+import com.example.barista.util.PriorityIndex;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import java.util.List;
+
+/**
+ * Decides which waiting order each free barista takes in a dispatch pass. Implementations remove
+ * the orders they plan from {@code waitingOrders}; the pass claims them in list order, puts back
+ * any whose barista could not be claimed, and falls back to greedy selection when an order was
+ * taken elsewhere. Selected by {@code barista.dispatch.strategy} (the bean name).
+ */
+public interface AssignmentStrategy {
+
+    List<Assignment> plan(List<Barista> freeBaristas, PriorityIndex waitingOrders, double averageWorkload);
+
+    @Getter
+    @RequiredArgsConstructor
+    class Assignment {
+        private final Barista barista;
+        private final Order order;
+        private final boolean emergency;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.barista.service;
+
+import com.example.barista.dto.CapacityPlanDto;
+import com.example.barista.dto.DispatchSimulationReportDto;
+import com.example.barista.model.Order;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Smallest roster that keeps the simulated p95 wait of a trace within a target: the trace is
+ * replayed through a fresh {@link DispatchSimulator} for each barista count, from the smallest
+ * up, stopping at the first count that meets the target.
+ */
+public final class CapacityPlanner {
+
+    private CapacityPlanner() {
+    }
+
+    /**
+     * @param trace opens the trace afresh for every run
+     */
+    public static CapacityPlanDto plan(Supplier<Iterator<Order>> trace, AssignmentStrategy strategy,
+                                       String strategyName, int minBaristas, int maxBaristas,
+                                       double targetP95WaitMinutes, int queueDepthSampleMinutes) {
+        if (minBaristas < 1 || maxBaristas < minBaristas) {
+            throw new IllegalArgumentException("Barista range must satisfy 1 <= min <= max");
+        }
+
+        List<DispatchSimulationReportDto> runs = new ArrayList<>();
+        for (int baristas = minBaristas; baristas <= maxBaristas; baristas++) {
+            DispatchSimulator simulator = new DispatchSimulator(strategy, strategyName, baristas);
+            simulator.setQueueDepthSampleMinutes(queueDepthSampleMinutes);
+            DispatchSimulationReportDto report = simulator.run(trace.get());
+            runs.add(report);
+            if (report.getWaitP95Minutes() <= targetP95WaitMinutes) {
+                return new CapacityPlanDto(targetP95WaitMinutes, baristas, runs);
+            }
+        }
+        return new CapacityPlanDto(targetP95WaitMinutes, null, runs);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.barista.service;
+
+import com.example.barista.model.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires order completion at its auto-complete deadline ({@code startedAt + prepTime}, stretched
+ * while prep times are learned, see {@link PrepTimeEstimator}) instead of waiting for the next
+ * polling sweep. A deadline is armed when an order moves to IN_PROGRESS and disarmed if the
+ * order is completed by hand; a single worker thread blocks on the queue until one is due.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CompletionScheduler {
+
+    private final ObjectProvider<SchedulingAgentService> agentService;
+    private final PrepTimeEstimator prepTimeEstimator;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    private final DelayQueue<CompletionDeadline> deadlines = new DelayQueue<>();
+    private final Map<Long, CompletionDeadline> armed = new ConcurrentHashMap<>();
+
+    private Thread worker;
+
+    public void arm(Order order) {
+        if (order.getStartedAt() == null) {
+            return;
+        }
+        CompletionDeadline deadline = new CompletionDeadline(order.getId(), prepTimeEstimator.autoCompleteAt(order));
+        CompletionDeadline previous = armed.put(order.getId(), deadline);
+        if (previous != null) {
+            deadlines.remove(previous);
+        }
+        deadlines.offer(deadline);
+    }
+
+    public void disarm(Long orderId) {
+        CompletionDeadline deadline = armed.remove(orderId);
+        if (deadline != null) {
+            deadlines.remove(deadline);
+        }
+    }
+
+    public int armedCount() {
+        return armed.size();
+    }
+
+    public void recordLag(Order order, LocalDateTime completedAt, String source) {
+        if (order.getStartedAt() == null) {
+            return;
+        }
+        LocalDateTime expectedComplete = prepTimeEstimator.autoCompleteAt(order);
+        Duration lag = Duration.between(expectedComplete, completedAt);
+        Timer.builder("barista.completion.lag")
+                .description("Delay between an order's expected and actual completion")
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(lag.isNegative() ? Duration.ZERO : lag);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        worker = new Thread(this::runLoop, "completion-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    private void runLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                CompletionDeadline deadline = deadlines.take();
+                if (armed.remove(deadline.getOrderId(), deadline)) {
+                    agentService.getObject().completeDueOrder(deadline.getOrderId());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                log.warn("Failed to complete due order", ex);
+            }
+        }
+    }
+
+    // Due instant in the clock's millis, so the delay and the queue order come from the same clock
+    // that stamped startedAt.
+    @Getter
+    private class CompletionDeadline implements Delayed {
+        private final Long orderId;
+        private final LocalDateTime dueAt;
+        private final long dueAtMillis;
+
+        CompletionDeadline(Long orderId, LocalDateTime dueAt) {
+            this.orderId = orderId;
+            this.dueAt = dueAt;
+            this.dueAtMillis = dueAt.atZone(clock.getZone()).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - clock.millis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((CompletionDeadline) other).dueAtMillis);
+        }
+    }
+}
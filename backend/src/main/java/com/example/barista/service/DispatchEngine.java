@@ -0,0 +1,329 @@
+package com.example.barista.service;
+
+import com.example.barista.model.Barista;
+import com.example.barista.model.Order;
+import com.example.barista.repository.BaristaRepository;
+import com.example.barista.repository.OrderRepository;
+import com.example.barista.util.PriorityIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Resident view of the dispatch state: per-zone waiting orders in a {@link PriorityIndex} and
+ * per-zone rosters, plus in-progress orders and the whole roster by id. It is loaded once from the
+ * database and then kept current from order create/assign/complete events, so a dispatch pass
+ * never has to rescan the tables. Until something reads from it, the event hooks are no-ops.
+ *
+ * <p>Each zone is locked on its own, so zones dispatch in parallel. A zone lock may be taken
+ * before the engine lock, never after it, and two zone locks only in name order.
+ */
+@Component
+@RequiredArgsConstructor
+public class DispatchEngine {
+
+    public static final String DEFAULT_ZONE = "main";
+
+    private final OrderRepository orderRepository;
+    private final BaristaRepository baristaRepository;
+
+    private final Map<String, Zone> zones = new ConcurrentSkipListMap<>();
+    private final Map<Long, Order> inProgressOrders = new LinkedHashMap<>();
+    private final Map<Long, Barista> baristas = new TreeMap<>();
+    private final Map<Long, String> baristaZones = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    public static String zoneOf(String zone) {
+        return zone == null || zone.isBlank() ? DEFAULT_ZONE : zone;
+    }
+
+    /**
+     * Waiting orders per barista; unbounded for a zone nobody works in that has anything waiting,
+     * so work stealing always drains it.
+     */
+    public static double backlogPerBarista(int waitingOrders, int baristas) {
+        if (baristas == 0) {
+            return waitingOrders == 0 ? 0 : Double.POSITIVE_INFINITY;
+        }
+        return (double) waitingOrders / baristas;
+    }
+
+    public synchronized void rehydrate() {
+        LocalDateTime now = LocalDateTime.now();
+        zones.clear();
+        baristaZones.clear();
+        inProgressOrders.clear();
+        baristas.clear();
+
+        orderRepository.findByStatusOrderByArrivalTimeAsc("WAITING")
+                .forEach(order -> zone(order.getZone(), now).waitingOrders.add(order));
+        orderRepository.findByStatusOrderByArrivalTimeAsc("IN_PROGRESS")
+                .forEach(order -> inProgressOrders.put(order.getId(), order));
+        baristaRepository.findAll().forEach(barista -> {
+            baristas.put(barista.getId(), barista);
+            baristaZones.put(barista.getId(), zoneOf(barista.getZone()));
+            zone(barista.getZone(), now).baristas.put(barista.getId(), barista);
+        });
+
+        loaded = true;
+    }
+
+    /**
+     * Drops the resident state, so the next read rebuilds it from the tables; for when a
+     * transaction that changed it did not commit.
+     */
+    public void invalidate() {
+        loaded = false;
+    }
+
+    public void orderCreated(Order order) {
+        if (loaded && "WAITING".equals(order.getStatus())) {
+            Zone zone = zone(order.getZone(), order.getArrivalTime());
+            synchronized (zone) {
+                zone.waitingOrders.add(order);
+            }
+        }
+    }
+
+    public void orderAssigned(Order order, Barista barista) {
+        if (!loaded) {
+            return;
+        }
+        removeWaiting(order);
+        synchronized (this) {
+            inProgressOrders.put(order.getId(), order);
+            baristas.put(barista.getId(), barista);
+        }
+    }
+
+    public void orderCompleted(Order order) {
+        if (!loaded) {
+            return;
+        }
+        removeWaiting(order);
+        synchronized (this) {
+            inProgressOrders.remove(order.getId());
+        }
+    }
+
+    public void baristaUpdated(Barista barista) {
+        if (!loaded) {
+            return;
+        }
+        synchronized (this) {
+            baristas.put(barista.getId(), barista);
+        }
+        String zoneName = zoneOf(barista.getZone());
+        String previousZone = baristaZones.put(barista.getId(), zoneName);
+        if (previousZone != null && !previousZone.equals(zoneName)) {
+            Zone previous = zones.get(previousZone);
+            synchronized (previous) {
+                previous.baristas.remove(barista.getId());
+            }
+        }
+        Zone zone = zone(zoneName, LocalDateTime.now());
+        synchronized (zone) {
+            zone.baristas.put(barista.getId(), barista);
+        }
+    }
+
+    /**
+     * The zone a new order should queue in: {@code requested} when a barista works there,
+     * otherwise the staffed zone with the fewest waiting orders per barista.
+     */
+    public String routeZone(String requested) {
+        if (!loaded) {
+            return zoneOf(requested);
+        }
+        Zone named = requested == null ? null : zones.get(requested);
+        if (named != null && named.baristaCount() > 0) {
+            return requested;
+        }
+        return zones.values().stream()
+                .filter(zone -> zone.baristaCount() > 0)
+                .min(Comparator.comparingDouble(Zone::backlogPerBarista))
+                .map(zone -> zone.name)
+                .orElse(zoneOf(requested));
+    }
+
+    public List<String> getZones() {
+        ensureLoaded();
+        return new ArrayList<>(zones.keySet());
+    }
+
+    /**
+     * Runs {@code action} against one zone's live waiting-order index and roster while holding the
+     * zone lock; the action is expected to {@link PriorityIndex#advanceTo advance} the index first.
+     */
+    public void withZone(String zoneName, BiConsumer<PriorityIndex, List<Barista>> action) {
+        ensureLoaded();
+        Zone zone = zones.get(zoneName);
+        if (zone == null) {
+            return;
+        }
+        synchronized (zone) {
+            action.accept(zone.waitingOrders, new ArrayList<>(zone.baristas.values()));
+        }
+    }
+
+    /**
+     * Runs {@code action} with the roster of {@code thief} against the waiting orders of
+     * {@code victim}, holding both zone locks (taken in name order).
+     */
+    public void withStolenWork(String thief, String victim, BiConsumer<PriorityIndex, List<Barista>> action) {
+        ensureLoaded();
+        Zone thiefZone = zones.get(thief);
+        Zone victimZone = zones.get(victim);
+        if (thiefZone == null || victimZone == null || thiefZone == victimZone) {
+            return;
+        }
+        Zone first = thief.compareTo(victim) < 0 ? thiefZone : victimZone;
+        Zone second = first == thiefZone ? victimZone : thiefZone;
+        synchronized (first) {
+            synchronized (second) {
+                action.accept(victimZone.waitingOrders, new ArrayList<>(thiefZone.baristas.values()));
+            }
+        }
+    }
+
+    /**
+     * True when the zone has a free barista and nothing left to give it.
+     */
+    public boolean isIdle(String zoneName) {
+        Zone zone = zones.get(zoneName);
+        if (zone == null) {
+            return false;
+        }
+        synchronized (zone) {
+            return zone.waitingOrders.isEmpty()
+                    && zone.baristas.values().stream().anyMatch(Barista::isAvailable);
+        }
+    }
+
+    /**
+     * The other zone with the most waiting orders per barista, if that is at least
+     * {@code minBacklogPerBarista}. A zone without baristas that has any waiting order comes first,
+     * whatever the threshold, since nobody else will ever serve it.
+     */
+    public Optional<String> mostBackloggedZone(String excluding, double minBacklogPerBarista) {
+        return zones.values().stream()
+                .filter(zone -> !zone.name.equals(excluding))
+                .filter(zone -> zone.backlogPerBarista() >= minBacklogPerBarista)
+                .max(Comparator.comparingDouble(Zone::backlogPerBarista))
+                .map(zone -> zone.name);
+    }
+
+    public List<Order> getWaitingOrders() {
+        ensureLoaded();
+        List<Order> orders = new ArrayList<>();
+        for (Zone zone : zones.values()) {
+            synchronized (zone) {
+                orders.addAll(zone.waitingOrders.ordersByArrival());
+            }
+        }
+        orders.sort(Comparator.comparing(Order::getArrivalTime));
+        return orders;
+    }
+
+    public int getWaitingCount() {
+        ensureLoaded();
+        int count = 0;
+        for (Zone zone : zones.values()) {
+            synchronized (zone) {
+                count += zone.waitingOrders.size();
+            }
+        }
+        return count;
+    }
+
+    // As of the last dispatch pass; advancing here could move an index past a pass in flight.
+    public int countWaitingAtLeast(long waitMinutes) {
+        ensureLoaded();
+        int count = 0;
+        for (Zone zone : zones.values()) {
+            synchronized (zone) {
+                count += zone.waitingOrders.countWaitingAtLeast(waitMinutes);
+            }
+        }
+        return count;
+    }
+
+    public synchronized List<Order> getInProgressOrders() {
+        ensureLoaded();
+        return new ArrayList<>(inProgressOrders.values());
+    }
+
+    public synchronized int getInProgressCount() {
+        ensureLoaded();
+        return inProgressOrders.size();
+    }
+
+    public synchronized Optional<Order> getInProgressOrder(Long id) {
+        ensureLoaded();
+        return Optional.ofNullable(inProgressOrders.get(id));
+    }
+
+    public synchronized List<Barista> getBaristas() {
+        ensureLoaded();
+        return new ArrayList<>(baristas.values());
+    }
+
+    public synchronized Optional<Barista> getBarista(Long id) {
+        ensureLoaded();
+        return Optional.ofNullable(baristas.get(id));
+    }
+
+    private void removeWaiting(Order order) {
+        Zone zone = zones.get(zoneOf(order.getZone()));
+        if (zone != null) {
+            synchronized (zone) {
+                zone.waitingOrders.remove(order.getId());
+            }
+        }
+    }
+
+    private Zone zone(String name, LocalDateTime now) {
+        String zoneName = zoneOf(name);
+        return zones.computeIfAbsent(zoneName, key -> new Zone(key, now));
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rehydrate();
+                }
+            }
+        }
+    }
+
+    private static final class Zone {
+        private final String name;
+        private final PriorityIndex waitingOrders;
+        private final Map<Long, Barista> baristas = new TreeMap<>();
+
+        Zone(String name, LocalDateTime now) {
+            this.name = name;
+            this.waitingOrders = new PriorityIndex(now);
+        }
+
+        synchronized int baristaCount() {
+            return baristas.size();
+        }
+
+        synchronized double backlogPerBarista() {
+            return DispatchEngine.backlogPerBarista(waitingOrders.size(), baristas.size());
+        }
+    }
+}
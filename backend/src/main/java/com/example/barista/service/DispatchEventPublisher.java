@@ -0,0 +1,238 @@
+package com.example.barista.service;
+
+import com.example.barista.dto.DispatchEventDto;
+import com.example.barista.model.Barista;
+import com.example.barista.model.Order;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes order and barista deltas to dashboards over Server-Sent Events. Events are numbered and
+ * the most recent ones are kept so a reconnecting client can resume from its Last-Event-ID.
+ * Numbering starts from the boot time, so an id from before a restart is behind every id of this
+ * run and its client is told to resync rather than trusted as current. Each client has a small
+ * queue of its own, written by a sender thread, so publishers never wait on a screen and a slow or
+ * half-open one never holds up the others; a client whose queue fills is disconnected and resumes
+ * (or resyncs) when it reconnects. Every client sees events in publish order. Payloads are
+ * rendered when published; inside a transaction the event is then held back until commit.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DispatchEventPublisher {
+
+    private static final int REPLAY_CAPACITY = 2048;
+    private static final int CLIENT_BACKLOG = 256;
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final PublishedEvent KEEP_ALIVE = new PublishedEvent(0, null, null);
+
+    private final ObjectMapper objectMapper;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Deque<PublishedEvent> recentEvents = new ArrayDeque<>();
+    // one thread per client being written to; a send stuck on a full socket only holds its own
+    private final ExecutorService senders = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "dispatch-events-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    // boot time in microseconds: ids of an earlier run are all lower, unless it published more than
+    // one event per microsecond of uptime
+    private long lastEventId = System.currentTimeMillis() * 1000;
+
+    public SseEmitter subscribe(Long lastSeenEventId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        // under the same lock as enqueue, so nothing is missed or sent twice between replay and live
+        synchronized (this) {
+            List<PublishedEvent> missed = new ArrayList<>();
+            boolean resync = false;
+            if (lastSeenEventId != null && lastSeenEventId > lastEventId) {
+                // ahead of anything this run published: the id is from another run or instance
+                resync = true;
+            } else if (lastSeenEventId != null && lastSeenEventId < lastEventId) {
+                PublishedEvent oldest = recentEvents.peekFirst();
+                resync = oldest == null || oldest.id > lastSeenEventId + 1;
+                if (!resync) {
+                    recentEvents.stream()
+                            .filter(event -> event.id > lastSeenEventId)
+                            .forEach(missed::add);
+                    resync = missed.size() > CLIENT_BACKLOG;
+                }
+            }
+
+            if (resync) {
+                deliver(subscriber, new PublishedEvent(lastEventId, "resync", ""));
+            } else {
+                missed.forEach(event -> deliver(subscriber, event));
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    public void orderCreated(Order order) {
+        publish("order-created", order, null);
+    }
+
+    public void orderAssigned(Order order, Barista barista) {
+        publish("order-assigned", order, barista);
+    }
+
+    public void orderCompleted(Order order) {
+        publish("order-completed", order, null);
+    }
+
+    public void baristaFreed(Barista barista) {
+        publish("barista-freed", null, barista);
+    }
+
+    public void baristaUpdated(Barista barista) {
+        publish("barista-updated", null, barista);
+    }
+
+    @Scheduled(fixedRate = 25000)
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> deliver(subscriber, KEEP_ALIVE));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void publish(String type, Order order, Barista barista) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(new DispatchEventDto(type, order, barista));
+        } catch (JsonProcessingException ex) {
+            log.warn("Could not render {} event", type, ex);
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(type, payload);
+                }
+            });
+        } else {
+            enqueue(type, payload);
+        }
+    }
+
+    private synchronized void enqueue(String type, String payload) {
+        PublishedEvent event = new PublishedEvent(++lastEventId, type, payload);
+        recentEvents.addLast(event);
+        if (recentEvents.size() > REPLAY_CAPACITY) {
+            recentEvents.removeFirst();
+        }
+        subscribers.forEach(subscriber -> deliver(subscriber, event));
+    }
+
+    private void deliver(Subscriber subscriber, PublishedEvent event) {
+        if (!subscriber.backlog.offer(event)) {
+            log.debug("Dispatch event subscriber fell {} events behind", CLIENT_BACKLOG);
+            drop(subscriber);
+            return;
+        }
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    // At most one sender per client at a time, so its events go out in order.
+    private void drain(Subscriber subscriber) {
+        do {
+            PublishedEvent event;
+            while ((event = subscriber.backlog.poll()) != null) {
+                try {
+                    send(subscriber.emitter, event);
+                } catch (IOException | IllegalStateException ex) {
+                    drop(subscriber);
+                    return;
+                }
+            }
+            subscriber.sending.set(false);
+        } while (!subscriber.backlog.isEmpty() && subscriber.sending.compareAndSet(false, true));
+    }
+
+    private void send(SseEmitter emitter, PublishedEvent event) throws IOException {
+        if (event == KEEP_ALIVE) {
+            emitter.send(SseEmitter.event().comment("keep-alive"));
+        } else if ("resync".equals(event.type)) {
+            emitter.send(SseEmitter.event().id(String.valueOf(event.id)).name(event.type).data(""));
+        } else {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.id))
+                    .name(event.type)
+                    .data(event.payload, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        log.debug("Dropped dispatch event subscriber");
+        subscriber.backlog.clear();
+        // completing waits for a send in progress, which may be stuck on the socket
+        senders.execute(subscriber.emitter::complete);
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<PublishedEvent> backlog = new ArrayBlockingQueue<>(CLIENT_BACKLOG);
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    private static class PublishedEvent {
+        private final long id;
+        private final String type;
+        private final String payload;
+
+        PublishedEvent(long id, String type, String payload) {
+            this.id = id;
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+}
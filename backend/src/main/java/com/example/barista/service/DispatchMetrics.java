@@ -0,0 +1,201 @@
+package com.example.barista.service;
+
+import com.example.barista.model.Barista;
+import com.example.barista.model.Order;
+import com.example.barista.repository.BaristaRepository;
+import com.example.barista.repository.OrderRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the dispatch hot path: per-stage pass timings, queue depth and barista utilization
+ * gauges, and per-order wait and turnaround distributions.
+ */
+@Component
+@RequiredArgsConstructor
+public class DispatchMetrics {
+
+    public enum Stage {
+        LOAD,
+        SCORE,
+        SORT,
+        SELECT,
+        PERSIST
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final DispatchEngine dispatchEngine;
+    private final OrderRepository orderRepository;
+    private final BaristaRepository baristaRepository;
+
+    @Value("${barista.dispatch.mode:memory}")
+    private DispatchMode dispatchMode;
+
+    @PostConstruct
+    void registerGauges() {
+        for (String status : List.of("WAITING", "IN_PROGRESS", "COMPLETED")) {
+            Gauge.builder("barista.orders.queue.depth", () -> queueDepth(status))
+                    .description("Orders currently in each status")
+                    .tag("status", status)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("barista.orders.emergency.waiting", this::emergencyWaiting)
+                .description("Waiting orders at or past the emergency wait")
+                .register(meterRegistry);
+        Gauge.builder("barista.baristas.utilization", this::baristaUtilization)
+                .description("Share of baristas currently busy")
+                .register(meterRegistry);
+    }
+
+    public Pass startPass() {
+        return new Pass();
+    }
+
+    public void orderCompleted(Order order) {
+        if (order.getArrivalTime() == null || order.getCompletedAt() == null) {
+            return;
+        }
+        if (order.getStartedAt() != null) {
+            Timer.builder("barista.order.wait")
+                    .description("Time from arrival until a barista starts the order")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(nonNegative(Duration.between(order.getArrivalTime(), order.getStartedAt())));
+        }
+        Timer.builder("barista.order.turnaround")
+                .description("Time from arrival until the order is completed")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nonNegative(Duration.between(order.getArrivalTime(), order.getCompletedAt())));
+    }
+
+    private double queueDepth(String status) {
+        if (dispatchMode == DispatchMode.MEMORY && "WAITING".equals(status)) {
+            return dispatchEngine.getWaitingCount();
+        }
+        if (dispatchMode == DispatchMode.MEMORY && "IN_PROGRESS".equals(status)) {
+            return dispatchEngine.getInProgressCount();
+        }
+        return orderRepository.countByStatus(status);
+    }
+
+    private double emergencyWaiting() {
+        if (dispatchMode == DispatchMode.MEMORY) {
+            return dispatchEngine.countWaitingAtLeast(SchedulingAgentService.EMERGENCY_WAIT_MINUTES);
+        }
+        return orderRepository.countByStatusAndArrivalTimeLessThanEqual(
+                "WAITING", LocalDateTime.now().minusMinutes(SchedulingAgentService.EMERGENCY_WAIT_MINUTES)
+        );
+    }
+
+    private double baristaUtilization() {
+        List<Barista> baristas = dispatchMode == DispatchMode.MEMORY
+                ? dispatchEngine.getBaristas()
+                : baristaRepository.findAll();
+        if (baristas.isEmpty()) {
+            return 0;
+        }
+        long busy = baristas.stream().filter(barista -> !barista.isAvailable()).count();
+        return (double) busy / baristas.size();
+    }
+
+    private static Duration nonNegative(Duration duration) {
+        return duration.isNegative() ? Duration.ZERO : duration;
+    }
+
+    /**
+     * Stage clock for one dispatch pass; not thread-safe. Stage totals are recorded once, when
+     * the pass finishes, so the stage timers add up to the pass timer. Zones dispatching in
+     * parallel each time a {@link #forZone() child} that is absorbed afterwards, so with several
+     * zones the stage totals are summed across threads and can exceed the pass wall time.
+     */
+    public class Pass {
+        private final long startedAt = System.nanoTime();
+        private final long[] stageNanos = new long[Stage.values().length];
+        private int scanned;
+        private int assigned;
+        private int emergencies;
+        private int skipRows;
+
+        public <T> T time(Stage stage, Supplier<T> step) {
+            long start = System.nanoTime();
+            try {
+                return step.get();
+            } finally {
+                stageNanos[stage.ordinal()] += System.nanoTime() - start;
+            }
+        }
+
+        public void time(Stage stage, Runnable step) {
+            long start = System.nanoTime();
+            try {
+                step.run();
+            } finally {
+                stageNanos[stage.ordinal()] += System.nanoTime() - start;
+            }
+        }
+
+        public void scanned(int orders) {
+            scanned += orders;
+        }
+
+        public void assigned(boolean emergency) {
+            assigned++;
+            if (emergency) {
+                emergencies++;
+            }
+        }
+
+        public void skipRowsRewritten(int rows) {
+            skipRows += rows;
+        }
+
+        public Pass forZone() {
+            return new Pass();
+        }
+
+        public void absorb(Pass zone) {
+            for (int stage = 0; stage < stageNanos.length; stage++) {
+                stageNanos[stage] += zone.stageNanos[stage];
+            }
+            scanned += zone.scanned;
+            assigned += zone.assigned;
+            emergencies += zone.emergencies;
+            skipRows += zone.skipRows;
+        }
+
+        public void finish() {
+            for (Stage stage : Stage.values()) {
+                Timer.builder("barista.dispatch.stage")
+                        .description("Time spent in each stage of a dispatch pass")
+                        .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry)
+                        .record(stageNanos[stage.ordinal()], TimeUnit.NANOSECONDS);
+            }
+            Timer.builder("barista.dispatch.pass")
+                    .description("Wall time of a dispatch pass")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("barista.dispatch.orders.scanned")
+                    .description("Waiting orders considered by a dispatch pass")
+                    .register(meterRegistry)
+                    .record(scanned);
+            meterRegistry.counter("barista.dispatch.assigned").increment(assigned);
+            meterRegistry.counter("barista.dispatch.emergency").increment(emergencies);
+            meterRegistry.counter("barista.dispatch.skip.rows").increment(skipRows);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.barista.service;
+
+import com.example.barista.dto.CapacityPlanDto;
+import com.example.barista.dto.DispatchSimulationReportDto;
+import com.example.barista.model.Order;
+import com.example.barista.util.ArrivalRateProfile;
+import com.example.barista.util.OrderTraceReader;
+import com.example.barista.util.WorkloadGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Offline what-if runs of the dispatch policy: a {@link DispatchSimulator} over any of the
+ * registered {@link AssignmentStrategy} beans, fed with seeded Poisson arrivals over the menu
+ * (steady, or shaped like a day with a morning rush) or with a recorded trace.
+ */
+@Service
+@RequiredArgsConstructor
+public class DispatchSimulationService {
+
+    public enum ArrivalPattern {
+        STEADY,
+        // ordersPerHour is the average while the shop is open, 06:00 to 20:00
+        MORNING_RUSH
+    }
+
+    private final Map<String, AssignmentStrategy> assignmentStrategies;
+    private final Clock clock;
+    private final ObjectMapper objectMapper;
+
+    @Value("${barista.simulation.max-orders:2000000}")
+    private int maxOrders;
+
+    @Value("${barista.simulation.max-baristas:100}")
+    private int maxBaristas;
+
+    public DispatchSimulationReportDto simulate(int orders, int baristas, double ordersPerHour,
+                                                ArrivalPattern pattern, String strategyName, Long seed) {
+        if (orders < 1 || orders > maxOrders) {
+            throw new IllegalArgumentException("orders must be between 1 and " + maxOrders);
+        }
+        if (ordersPerHour <= 0) {
+            throw new IllegalArgumentException("ordersPerHour must be positive");
+        }
+        ArrivalRateProfile profile = pattern == ArrivalPattern.MORNING_RUSH
+                ? ArrivalRateProfile.morningRush(ordersPerHour)
+                : ArrivalRateProfile.steady(ordersPerHour);
+        return simulate(generatedArrivals(orders, profile, seed), baristas, strategyName);
+    }
+
+    public DispatchSimulationReportDto simulate(Iterator<Order> arrivals, int baristas, String strategyName) {
+        checkBaristas(baristas);
+        return new DispatchSimulator(strategy(strategyName), strategyName, baristas).run(arrivals);
+    }
+
+    /**
+     * Sweeps {@code minBaristas..maxBaristas} over a recorded trace (see {@link OrderTraceReader})
+     * for the smallest roster whose simulated p95 wait meets the target.
+     */
+    public CapacityPlanDto planCapacity(String trace, OrderTraceReader.Format format, String strategyName,
+                                        int minBaristas, int maxBaristas, double targetP95WaitMinutes,
+                                        int queueDepthSampleMinutes) {
+        checkBaristas(maxBaristas);
+        AssignmentStrategy strategy = strategy(strategyName);
+        return CapacityPlanner.plan(() -> traceArrivals(trace, format), strategy, strategyName,
+                minBaristas, maxBaristas, targetP95WaitMinutes, queueDepthSampleMinutes);
+    }
+
+    private Iterator<Order> traceArrivals(String trace, OrderTraceReader.Format format) {
+        OrderTraceReader reader = new OrderTraceReader(
+                new BufferedReader(new StringReader(trace)), format, objectMapper
+        );
+        return new Iterator<>() {
+            private long read;
+
+            @Override
+            public boolean hasNext() {
+                return reader.hasNext();
+            }
+
+            @Override
+            public Order next() {
+                if (++read > maxOrders) {
+                    throw new IllegalArgumentException("Trace has more than " + maxOrders + " orders");
+                }
+                OrderTraceReader.Arrival arrival = reader.next();
+                Order order = OrderService.newOrder(arrival.getRequest(), arrival.getTimestamp());
+                order.setId(read);
+                return order;
+            }
+        };
+    }
+
+    private AssignmentStrategy strategy(String strategyName) {
+        AssignmentStrategy strategy = assignmentStrategies.get(strategyName);
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unknown strategy '" + strategyName
+                    + "', expected one of " + assignmentStrategies.keySet());
+        }
+        return strategy;
+    }
+
+    private void checkBaristas(int baristas) {
+        if (baristas > maxBaristas) {
+            throw new IllegalArgumentException("At most " + maxBaristas + " baristas can be simulated");
+        }
+    }
+
+    private Iterator<Order> generatedArrivals(int count, ArrivalRateProfile profile, Long seed) {
+        SplittableRandom random = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+        List<String> drinks = PrepTimeEstimator.DEFAULT_PREP_MINUTES.keySet().stream().sorted().toList();
+        Iterator<LocalDateTime> arrivalTimes = WorkloadGenerator
+                .poisson(profile, LocalDateTime.now(clock).withNano(0), random.nextLong())
+                .limit(count);
+
+        return new Iterator<>() {
+            private long produced;
+
+            @Override
+            public boolean hasNext() {
+                return arrivalTimes.hasNext();
+            }
+
+            @Override
+            public Order next() {
+                LocalDateTime arrivalTime = arrivalTimes.next();
+                String drink = drinks.get(random.nextInt(drinks.size()));
+                produced++;
+                return Order.builder()
+                        .id(produced)
+                        .drinkType(drink)
+                        .prepTime(PrepTimeEstimator.defaultMinutes(drink))
+                        .arrivalTime(arrivalTime)
+                        .customerName("Customer " + produced)
+                        .loyaltyCustomer(random.nextInt(4) == 0)
+                        .rushOrder(random.nextInt(10) == 0)
+                        .status("WAITING")
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.barista.service;
+
+import com.example.barista.dto.DispatchSimulationReportDto;
+import com.example.barista.model.Barista;
+import com.example.barista.model.Order;
+import com.example.barista.service.AssignmentStrategy.Assignment;
+import com.example.barista.util.PriorityIndex;
+import com.example.barista.util.QuantileSketch;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Discrete-event replay of the production dispatch policy on a virtual clock: one shared
+ * {@link PriorityIndex}, the configured {@link AssignmentStrategy}, the same fairness-skip
+ * accounting, and a pass at every arrival and completion instant (where the live service is
+ * triggered). Claims never conflict here, and the dispatch debounce is not modelled. Arrivals are
+ * consumed lazily, completed orders are dropped and waits feed quantile sketches, so memory
+ * follows the queue, not the trace.
+ * Not thread-safe; use one simulator per run.
+ */
+public class DispatchSimulator {
+
+    private static final Comparator<Running> COMPLETION_ORDER = Comparator
+            .comparing((Running running) -> running.completesAt)
+            .thenComparingLong(running -> running.barista.getId());
+
+    private final AssignmentStrategy strategy;
+    private final String strategyName;
+    private final List<Barista> roster;
+
+    private final PriorityQueue<Running> running = new PriorityQueue<>(COMPLETION_ORDER);
+    private final Stats stats = new Stats();
+    private PriorityIndex waitingOrders;
+
+    /**
+     * Adds a queue-depth curve to the report: the deepest queue left behind by a pass in each
+     * window of {@code minutes}, counted from the first arrival. 0 (the default) turns it off.
+     */
+    public void setQueueDepthSampleMinutes(int minutes) {
+        if (minutes < 0) {
+            throw new IllegalArgumentException("Queue depth sample window must not be negative");
+        }
+        stats.sampleMinutes = minutes;
+    }
+
+    public DispatchSimulator(AssignmentStrategy strategy, String strategyName, int baristaCount) {
+        if (baristaCount < 1) {
+            throw new IllegalArgumentException("At least one barista is required");
+        }
+        this.strategy = strategy;
+        this.strategyName = strategyName;
+        this.roster = new ArrayList<>(baristaCount);
+        for (int index = 0; index < baristaCount; index++) {
+            roster.add(Barista.builder()
+                    .id((long) index + 1)
+                    .name("Barista " + (index + 1))
+                    .available(true)
+                    .build());
+        }
+    }
+
+    /**
+     * Runs until every arrival has been served. {@code arrivals} must be in arrival order; orders
+     * without an id are numbered in arrival order.
+     */
+    public DispatchSimulationReportDto run(Iterator<Order> arrivals) {
+        Order next = nextArrival(arrivals, null);
+        if (next == null) {
+            return stats.report(strategyName, roster.size());
+        }
+        waitingOrders = new PriorityIndex(next.getArrivalTime());
+        stats.start(next.getArrivalTime());
+
+        while (next != null || !running.isEmpty()) {
+            LocalDateTime now = nextEventTime(next);
+
+            while (!running.isEmpty() && !running.peek().completesAt.isAfter(now)) {
+                complete(running.poll());
+            }
+            while (next != null && !next.getArrivalTime().isAfter(now)) {
+                next.setStatus("WAITING");
+                waitingOrders.add(next);
+                next = nextArrival(arrivals, next);
+            }
+
+            waitingOrders.advanceTo(now);
+            dispatch(now);
+            stats.queueDepth(now, waitingOrders.size());
+        }
+        return stats.report(strategyName, roster.size());
+    }
+
+    private void dispatch(LocalDateTime now) {
+        List<Barista> freeBaristas = roster.stream().filter(Barista::isAvailable).toList();
+        if (waitingOrders.isEmpty() || freeBaristas.isEmpty()) {
+            return;
+        }
+
+        double averageWorkload = roster.stream()
+                .mapToInt(Barista::getWorkloadMinutes)
+                .average()
+                .orElse(0);
+
+        List<Assignment> plan = strategy.plan(freeBaristas, waitingOrders, averageWorkload);
+        Map<Long, Integer> skipDeltas = new HashMap<>();
+
+        for (int position = 0; position < plan.size(); position++) {
+            Assignment assignment = plan.get(position);
+            Order order = assignment.getOrder();
+            Barista barista = assignment.getBarista();
+            int pendingSkips = Optional.ofNullable(skipDeltas.remove(order.getId())).orElse(0);
+
+            order.setPriorityScore(waitingOrders.score(order));
+            order.setSkippedByLaterCount(order.getSkippedByLaterCount() + pendingSkips);
+            order.setStatus("IN_PROGRESS");
+            order.setAssignedBaristaId(barista.getId());
+            order.setStartedAt(now);
+
+            barista.setAvailable(false);
+            barista.setCurrentOrderId(order.getId());
+            barista.setWorkloadMinutes(barista.getWorkloadMinutes() + order.getPrepTime());
+
+            running.add(new Running(order, barista, now.plusMinutes(order.getPrepTime())));
+            stats.assigned(assignment.isEmergency());
+
+            SchedulingAgentService.recordFairnessSkips(
+                    waitingOrders, plan.subList(position + 1, plan.size()), order, skipDeltas
+            );
+        }
+
+        SchedulingAgentService.applyFairnessSkips(waitingOrders, skipDeltas);
+    }
+
+    private LocalDateTime nextEventTime(Order nextArrival) {
+        if (running.isEmpty()) {
+            return nextArrival.getArrivalTime();
+        }
+        LocalDateTime nextCompletion = running.peek().completesAt;
+        if (nextArrival != null && nextArrival.getArrivalTime().isBefore(nextCompletion)) {
+            return nextArrival.getArrivalTime();
+        }
+        return nextCompletion;
+    }
+
+    private void complete(Running finished) {
+        Order order = finished.order;
+        order.setStatus("COMPLETED");
+        order.setCompletedAt(finished.completesAt);
+        finished.barista.setAvailable(true);
+        finished.barista.setCurrentOrderId(null);
+        stats.completed(order);
+    }
+
+    private Order nextArrival(Iterator<Order> arrivals, Order previous) {
+        if (!arrivals.hasNext()) {
+            return null;
+        }
+        Order order = arrivals.next();
+        if (previous != null && order.getArrivalTime().isBefore(previous.getArrivalTime())) {
+            throw new IllegalArgumentException("Arrivals must be in arrival order, order "
+                    + order.getId() + " arrives before " + previous.getId());
+        }
+        if (order.getId() == null) {
+            order.setId(previous == null ? 1L : previous.getId() + 1);
+        }
+        return order;
+    }
+
+    private static class Running {
+        private final Order order;
+        private final Barista barista;
+        private final LocalDateTime completesAt;
+
+        Running(Order order, Barista barista, LocalDateTime completesAt) {
+            this.order = order;
+            this.barista = barista;
+            this.completesAt = completesAt;
+        }
+    }
+
+    // Percentiles come from sketches (within 1%); sums, maxima and counts are exact.
+    private static class Stats {
+        private final QuantileSketch waitSeconds = new QuantileSketch();
+        private final QuantileSketch turnaroundSeconds = new QuantileSketch();
+        private int completed;
+
+        private LocalDateTime firstArrival;
+        private LocalDateTime lastCompletion;
+        private long busyMinutes;
+        private long emergencyAssignments;
+        private int maxQueueDepth;
+        private int sampleMinutes;
+        private final List<Integer> queueDepthCurve = new ArrayList<>();
+        private int lastDepth;
+
+        private double waitSum;
+        private double waitSquareSum;
+        private long skipSum;
+        private int maxSkips;
+        private long overtaken;
+
+        void start(LocalDateTime firstArrival) {
+            this.firstArrival = firstArrival;
+        }
+
+        void queueDepth(LocalDateTime now, int depth) {
+            maxQueueDepth = Math.max(maxQueueDepth, depth);
+            if (sampleMinutes > 0) {
+                int window = (int) (Duration.between(firstArrival, now).toMinutes() / sampleMinutes);
+                // windows without a pass keep the depth the last pass left
+                while (queueDepthCurve.size() <= window) {
+                    queueDepthCurve.add(lastDepth);
+                }
+                queueDepthCurve.set(window, Math.max(queueDepthCurve.get(window), depth));
+            }
+            lastDepth = depth;
+        }
+
+        void assigned(boolean emergency) {
+            if (emergency) {
+                emergencyAssignments++;
+            }
+        }
+
+        void completed(Order order) {
+            long wait = Duration.between(order.getArrivalTime(), order.getStartedAt()).toSeconds();
+            waitSeconds.add(wait);
+            turnaroundSeconds.add(Duration.between(order.getArrivalTime(), order.getCompletedAt()).toSeconds());
+            completed++;
+
+            waitSum += wait;
+            waitSquareSum += (double) wait * wait;
+            busyMinutes += order.getPrepTime();
+            skipSum += order.getSkippedByLaterCount();
+            maxSkips = Math.max(maxSkips, order.getSkippedByLaterCount());
+            if (order.getSkippedByLaterCount() > 0) {
+                overtaken++;
+            }
+            lastCompletion = order.getCompletedAt();
+        }
+
+        DispatchSimulationReportDto report(String strategyName, int baristas) {
+            DispatchSimulationReportDto.DispatchSimulationReportDtoBuilder report = DispatchSimulationReportDto.builder()
+                    .strategy(strategyName)
+                    .baristas(baristas)
+                    .orders(completed)
+                    .emergencyAssignments(emergencyAssignments)
+                    .maxQueueDepth(maxQueueDepth)
+                    .queueDepthSampleMinutes(sampleMinutes)
+                    .queueDepthCurve(queueDepthCurve)
+                    .waitFairnessIndex(1);
+            if (completed == 0) {
+                return report.build();
+            }
+
+            double simulatedMinutes = Duration.between(firstArrival, lastCompletion).toSeconds() / 60.0;
+
+            return report
+                    .simulatedMinutes(simulatedMinutes)
+                    .throughputPerHour(simulatedMinutes > 0 ? completed * 60.0 / simulatedMinutes : 0)
+                    .utilization(simulatedMinutes > 0 ? busyMinutes / (simulatedMinutes * baristas) : 0)
+                    .averageWaitMinutes(waitSum / completed / 60.0)
+                    .waitP50Minutes(percentileMinutes(waitSeconds, 0.50))
+                    .waitP90Minutes(percentileMinutes(waitSeconds, 0.90))
+                    .waitP95Minutes(percentileMinutes(waitSeconds, 0.95))
+                    .waitP99Minutes(percentileMinutes(waitSeconds, 0.99))
+                    .maxWaitMinutes(waitSeconds.getMax() / 60.0)
+                    .turnaroundP50Minutes(percentileMinutes(turnaroundSeconds, 0.50))
+                    .turnaroundP99Minutes(percentileMinutes(turnaroundSeconds, 0.99))
+                    .averageSkips((double) skipSum / completed)
+                    .maxSkips(maxSkips)
+                    .overtakenShare((double) overtaken / completed)
+                    // Jain's index over waits: 1 when every order waits the same
+                    .waitFairnessIndex(waitSquareSum == 0 ? 1 : waitSum * waitSum / (completed * waitSquareSum))
+                    .build();
+        }
+
+        private static double percentileMinutes(QuantileSketch seconds, double quantile) {
+            return seconds.quantile(quantile) / 60.0;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.barista.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs dispatch passes off the caller's thread. A request marks the dispatcher dirty and returns;
+ * the first request in a quiet period schedules one pass after the debounce window, and every
+ * request until that pass starts rides along with it. Passes run on a single worker thread, so
+ * at most one is in flight per instance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DispatchTrigger {
+
+    private final ObjectProvider<SchedulingAgentService> agentService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${barista.dispatch.debounce-ms:50}")
+    private long debounceMs;
+
+    private final AtomicBoolean passScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dispatch-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public void request() {
+        meterRegistry.counter("barista.dispatch.requests").increment();
+        if (passScheduled.compareAndSet(false, true)) {
+            worker.schedule(this::runPass, debounceMs, TimeUnit.MILLISECONDS);
+        } else {
+            meterRegistry.counter("barista.dispatch.coalesced").increment();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    private void runPass() {
+        // cleared before the pass, so anything that changes during it gets a pass of its own
+        passScheduled.set(false);
+        meterRegistry.counter("barista.dispatch.passes").increment();
+        try {
+            agentService.getObject().runDispatchPass();
+        } catch (RuntimeException ex) {
+            log.warn("Dispatch pass failed", ex);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.barista.service;
+
+import com.example.barista.model.Barista;
+import com.example.barista.model.Order;
+import com.example.barista.util.PriorityIndex;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Baristas in roster order each take the emergency order, or else their workload-adjusted best.
+ */
+@Component("greedy")
+public class GreedyAssignmentStrategy implements AssignmentStrategy {
+
+    @Override
+    public List<Assignment> plan(List<Barista> freeBaristas, PriorityIndex waitingOrders, double averageWorkload) {
+        List<Assignment> plan = new ArrayList<>(freeBaristas.size());
+        for (Barista barista : freeBaristas) {
+            if (waitingOrders.isEmpty()) {
+                break;
+            }
+            Optional<Order> emergencyOrder = SchedulingAgentService.getEmergencyOrder(waitingOrders);
+            Order order = emergencyOrder.orElseGet(() ->
+                    SchedulingAgentService.selectOrderForBarista(barista, waitingOrders, averageWorkload)
+            );
+            waitingOrders.remove(order.getId());
+            plan.add(new Assignment(barista, order, emergencyOrder.isPresent()));
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.barista.service;
+
+public enum IntakeMode {
+    DIRECT,
+    JOURNAL
+}
@@ -0,0 +1,124 @@
+package com.example.barista.service;
+
+import com.example.barista.model.Barista;
+import com.example.barista.model.Order;
+import com.example.barista.util.HungarianSolver;
+import com.example.barista.util.PriorityCalculator;
+import com.example.barista.util.PriorityIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Minimum-cost matching of all free baristas against the top-K waiting orders at once. An order
+ * costs its negated priority score, less a large bonus once it is an emergency, plus a workload
+ * term that steers baristas above the average towards quick drinks and those below it towards
+ * complex ones. Emergency orders are always among the candidates, whatever K is.
+ */
+@Component("matching")
+public class MatchingAssignmentStrategy implements AssignmentStrategy {
+
+    private static final double EMERGENCY_BONUS = 1_000;
+    private static final double WORKLOAD_WEIGHT = 5;
+    private static final double MAX_WORKLOAD_RATIO = 3;
+
+    @Value("${barista.dispatch.matching.top-k:500}")
+    private int topK = 500;
+
+    public MatchingAssignmentStrategy() {
+    }
+
+    MatchingAssignmentStrategy(int topK) {
+        this.topK = topK;
+    }
+
+    @Override
+    public List<Assignment> plan(List<Barista> freeBaristas, PriorityIndex waitingOrders, double averageWorkload) {
+        if (freeBaristas.isEmpty() || waitingOrders.isEmpty()) {
+            return List.of();
+        }
+
+        List<Order> candidates = candidates(waitingOrders, freeBaristas.size());
+        boolean[] emergency = new boolean[candidates.size()];
+        double[] orderCost = new double[candidates.size()];
+        for (int column = 0; column < candidates.size(); column++) {
+            Order order = candidates.get(column);
+            long waitMinutes = PriorityCalculator.waitMinutes(order.getArrivalTime(), waitingOrders.getNow());
+            emergency[column] = waitMinutes >= SchedulingAgentService.EMERGENCY_WAIT_MINUTES;
+            orderCost[column] = -waitingOrders.score(order) - (emergency[column] ? EMERGENCY_BONUS : 0);
+        }
+
+        double[][] cost = new double[freeBaristas.size()][candidates.size()];
+        for (int row = 0; row < freeBaristas.size(); row++) {
+            double imbalance = workloadRatio(freeBaristas.get(row), averageWorkload) - 1;
+            for (int column = 0; column < candidates.size(); column++) {
+                cost[row][column] = orderCost[column]
+                        + WORKLOAD_WEIGHT * imbalance * candidates.get(column).getPrepTime();
+            }
+        }
+
+        int[] orderForBarista = match(cost);
+        List<Assignment> plan = new ArrayList<>();
+        for (int row = 0; row < freeBaristas.size(); row++) {
+            int column = orderForBarista[row];
+            if (column < 0) {
+                continue;
+            }
+            Order order = candidates.get(column);
+            waitingOrders.remove(order.getId());
+            plan.add(new Assignment(freeBaristas.get(row), order, emergency[column]));
+        }
+        // emergencies are claimed first, so a lost barista claim never strands one
+        plan.sort(Comparator.comparing(assignment -> !assignment.isEmergency()));
+        return plan;
+    }
+
+    private List<Order> candidates(PriorityIndex waitingOrders, int freeBaristas) {
+        List<Order> candidates = new ArrayList<>(waitingOrders.topByPriority(
+                freeBaristas, SchedulingAgentService.EMERGENCY_WAIT_MINUTES
+        ));
+        Set<Long> seen = new HashSet<>();
+        candidates.forEach(order -> seen.add(order.getId()));
+        for (Order order : waitingOrders.topByPriority(topK, Long.MIN_VALUE)) {
+            if (seen.add(order.getId())) {
+                candidates.add(order);
+            }
+        }
+        return candidates;
+    }
+
+    // Row -> column, -1 for rows left unmatched when there are fewer columns than rows.
+    private static int[] match(double[][] cost) {
+        int rows = cost.length;
+        int columns = cost[0].length;
+        if (rows <= columns) {
+            return HungarianSolver.solve(cost);
+        }
+
+        double[][] transposed = new double[columns][rows];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                transposed[column][row] = cost[row][column];
+            }
+        }
+        int[] rowForColumn = HungarianSolver.solve(transposed);
+        int[] columnForRow = new int[rows];
+        Arrays.fill(columnForRow, -1);
+        for (int column = 0; column < columns; column++) {
+            columnForRow[rowForColumn[column]] = column;
+        }
+        return columnForRow;
+    }
+
+    private static double workloadRatio(Barista barista, double averageWorkload) {
+        if (averageWorkload <= 0) {
+            return 1;
+        }
+        return Math.min(barista.getWorkloadMinutes() / averageWorkload, MAX_WORKLOAD_RATIO);
+    }
+}
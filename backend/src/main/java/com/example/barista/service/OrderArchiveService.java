@@ -0,0 +1,113 @@
+package com.example.barista.service;
+
+import com.example.barista.dto.OrderPageDto;
+import com.example.barista.dto.OrderSummaryDto;
+import com.example.barista.repository.OrderHistoryRepository;
+import com.example.barista.repository.OrderRepository;
+import com.example.barista.util.KeysetCursor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves COMPLETED orders past a configurable age from "orders" into the append-only
+ * "order_history" table, one bounded transaction per batch, so the live table only carries the
+ * working set the dispatcher and dashboard read. Analytics over past traffic reads the archive.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderArchiveService {
+
+    // SQL Server caps a statement at 2100 parameters
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final String HISTORY_CURSOR = "HISTORY";
+
+    private final OrderRepository orderRepository;
+    private final OrderHistoryRepository orderHistoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    @Value("${barista.archive.completed-age-minutes:1440}")
+    private long completedAgeMinutes;
+
+    @Value("${barista.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${barista.archive.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    @Value("${barista.orders.max-page-size:500}")
+    private int maxPageSize;
+
+    @Scheduled(fixedDelayString = "${barista.archive.interval-ms:300000}")
+    public void archiveCompletedOrders() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime cutoff = now.minusMinutes(completedAgeMinutes);
+        int limit = Math.min(Math.max(batchSize, 1), MAX_BATCH_SIZE);
+
+        int archived = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff, now, limit));
+            if (moved == null || moved == 0) {
+                break;
+            }
+            archived += moved;
+            if (moved < limit) {
+                break;
+            }
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} orders completed before {}", archived, cutoff);
+        }
+    }
+
+    public OrderPageDto getHistory(LocalDateTime from, LocalDateTime to, String cursor, int limit) {
+        LocalDateTime start = from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime end = to != null ? to : LocalDateTime.now(clock);
+        int pageSize = Math.min(Math.max(limit, 1), maxPageSize);
+        Pageable page = PageRequest.of(0, pageSize + 1);
+
+        List<OrderSummaryDto> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderHistoryRepository.findSummariesCompletedBetween(start, end, page);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            if (!HISTORY_CURSOR.equals(after.getPartition())) {
+                throw new IllegalArgumentException("Cursor does not belong to the order history");
+            }
+            orders = orderHistoryRepository.findSummariesCompletedAfter(after.getTime(), after.getId(), end, page);
+        }
+
+        String nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = orders.subList(0, pageSize);
+            OrderSummaryDto last = orders.get(pageSize - 1);
+            nextCursor = new KeysetCursor(HISTORY_CURSOR, last.getCompletedAt(), last.getId()).encode();
+        }
+        return new OrderPageDto(orders, nextCursor);
+    }
+
+    private int archiveBatch(LocalDateTime cutoff, LocalDateTime archivedAt, int limit) {
+        List<Long> ids = orderRepository.findArchivableIds(cutoff, PageRequest.of(0, limit));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        int copied = orderHistoryRepository.copyCompletedOrders(ids, archivedAt);
+        int deleted = orderRepository.deleteCompletedByIds(ids);
+        if (copied != deleted) {
+            throw new IllegalStateException("Archived " + copied + " orders but removed " + deleted);
+        }
+        return deleted;
+    }
+}
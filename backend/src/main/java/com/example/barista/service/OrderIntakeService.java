@@ -0,0 +1,262 @@
+package com.example.barista.service;
+
+import com.example.barista.model.Order;
+import com.example.barista.repository.OrderRepository;
+import com.example.barista.util.IntakeJournal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journaled order intake: a new order is appended to a local {@link IntakeJournal} and
+ * acknowledged once it is on disk, without waiting for SQL Server. A single drainer inserts the
+ * backlog in batches, one transaction each, then hands the saved orders to dispatch and
+ * checkpoints the journal. Entries left undrained by a crash or shutdown are replayed on the next
+ * start; each carries an intake key, so one that was inserted just before the crash is skipped.
+ * A batch the database rejects outright (a constraint, an over-long value) is split until the
+ * offending orders are alone; those are written to {@code dead-letter/} next to the journal and
+ * skipped, so one bad order cannot hold up intake. The journal is local to this instance.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderIntakeService {
+
+    private static final String DEAD_LETTER_DIRECTORY = "dead-letter";
+
+    private final OrderRepository orderRepository;
+    private final DispatchEngine dispatchEngine;
+    private final DispatchEventPublisher eventPublisher;
+    private final DispatchTrigger dispatchTrigger;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${barista.intake.mode:direct}")
+    private IntakeMode intakeMode;
+
+    @Value("${barista.intake.journal.directory:data/intake-journal}")
+    private Path directory;
+
+    @Value("${barista.intake.journal.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${barista.intake.drain.batch-size:200}")
+    private int batchSize;
+
+    @Value("${barista.intake.drain.retry-ms:1000}")
+    private long retryMs;
+
+    private final BlockingQueue<Pending> backlog = new LinkedBlockingQueue<>();
+    // concurrent appends can reach the backlog out of sequence order, so the checkpoint only
+    // advances over an unbroken run of saved sequences; drainer thread only
+    private final Set<Long> savedAhead = new HashSet<>();
+    private long savedThrough;
+
+    private IntakeJournal journal;
+    private Thread drainer;
+    private volatile boolean draining;
+
+    /**
+     * Opens the journal before any request can reach {@link #accept}, so recovered entries drain
+     * ahead of new ones. A journal left behind after switching back to direct intake is still
+     * drained.
+     */
+    @PostConstruct
+    void openJournal() throws IOException {
+        if (intakeMode != IntakeMode.JOURNAL && !Files.isDirectory(directory)) {
+            return;
+        }
+        journal = IntakeJournal.open(directory, segmentBytes);
+        savedThrough = journal.lastCheckpoint();
+        List<IntakeJournal.Entry> recovered = journal.recovered();
+        recovered.forEach(entry -> backlog.add(new Pending(entry.getSequence(), entry.getPayload())));
+        if (!recovered.isEmpty()) {
+            log.info("Replaying {} journaled orders from {}", recovered.size(), directory);
+        }
+
+        Gauge.builder("barista.intake.backlog", backlog::size)
+                .description("Journaled orders not yet saved to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Journals {@code order} and returns it with its intake key but no id yet. Fails only if the
+     * journal cannot be written, in which case the till should retry.
+     */
+    public Order accept(Order order) {
+        if (journal == null) {
+            throw new IllegalStateException("Journaled intake is not enabled");
+        }
+        order.setIntakeKey(UUID.randomUUID().toString());
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(order);
+            long sequence = journal.append(payload);
+            backlog.add(new Pending(sequence, payload));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not journal order", ex);
+        }
+        return order;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (journal == null || drainer != null) {
+            return;
+        }
+        draining = true;
+        drainer = new Thread(this::drainLoop, "intake-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Lets the batch in flight finish, then closes the journal; the rest is replayed next start.
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException, IOException {
+        draining = false;
+        if (drainer != null) {
+            drainer.join(TimeUnit.SECONDS.toMillis(30));
+            drainer = null;
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (draining) {
+            try {
+                if (batch.isEmpty()) {
+                    Pending first = backlog.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    backlog.drainTo(batch, batchSize - 1);
+                }
+                save(batch);
+                batch.clear();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException ex) {
+                // a transient failure: the same batch is retried, in order, until the database takes it
+                log.warn("Saving {} journaled orders failed, retrying in {} ms: {}",
+                        batch.size(), retryMs, ex.getMessage());
+                try {
+                    Thread.sleep(retryMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void save(List<Pending> batch) throws IOException {
+        if (saveIsolating(batch)) {
+            dispatchTrigger.request();
+        }
+
+        batch.forEach(pending -> savedAhead.add(pending.getSequence()));
+        while (savedAhead.remove(savedThrough + 1)) {
+            savedThrough++;
+        }
+        try {
+            journal.checkpoint(savedThrough);
+        } catch (IOException ex) {
+            // the batch is saved either way; the next checkpoint covers it, or a replay skips it
+            log.warn("Journal checkpoint at {} failed: {}", savedThrough, ex.getMessage());
+        }
+    }
+
+    // Halves a rejected batch down to the orders that cannot be saved and dead-letters those; a
+    // transient failure propagates, and the parts already saved are skipped on retry by intake key.
+    private boolean saveIsolating(List<Pending> batch) throws IOException {
+        try {
+            return insert(batch);
+        } catch (RuntimeException | IOException ex) {
+            if (!isPermanent(ex)) {
+                throw ex;
+            }
+            if (batch.size() == 1) {
+                deadLetter(batch.get(0), ex);
+                return false;
+            }
+            int middle = batch.size() / 2;
+            boolean first = saveIsolating(batch.subList(0, middle));
+            return saveIsolating(batch.subList(middle, batch.size())) || first;
+        }
+    }
+
+    private boolean insert(List<Pending> batch) throws IOException {
+        // decoded per attempt: a rolled-back insert leaves its generated id on the entity
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            orders.add(objectMapper.readValue(pending.getPayload(), Order.class));
+        }
+
+        List<Order> saved = transactionTemplate.execute(status -> {
+            Set<String> alreadySaved = new HashSet<>(orderRepository.findIntakeKeysIn(
+                    orders.stream().map(Order::getIntakeKey).toList()
+            ));
+            return orderRepository.saveAll(orders.stream()
+                    .filter(order -> !alreadySaved.contains(order.getIntakeKey()))
+                    .toList());
+        });
+
+        for (Order order : saved) {
+            dispatchEngine.orderCreated(order);
+            eventPublisher.orderCreated(order);
+        }
+        return !saved.isEmpty();
+    }
+
+    // An unreadable entry, or one the database refuses however often it is retried.
+    private static boolean isPermanent(Exception ex) {
+        return ex instanceof IOException || ex instanceof DataIntegrityViolationException;
+    }
+
+    private void deadLetter(Pending pending, Exception cause) throws IOException {
+        Path file = directory.resolve(DEAD_LETTER_DIRECTORY)
+                .resolve(String.format("intake-%020d.json", pending.getSequence()));
+        Files.createDirectories(file.getParent());
+        Files.write(file, pending.getPayload());
+        meterRegistry.counter("barista.intake.dead-lettered").increment();
+        log.error("Journaled order {} cannot be saved and was moved to {}: {}",
+                pending.getSequence(), file, cause.getMessage());
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Pending {
+        private final long sequence;
+        private final byte[] payload;
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.barista.service;
+
+import com.example.barista.dto.TrafficGroupDto;
+import com.example.barista.dto.TrafficReportDto;
+import com.example.barista.model.Barista;
+import com.example.barista.model.Order;
+import com.example.barista.model.OrderRollup;
+import com.example.barista.repository.BaristaRepository;
+import com.example.barista.repository.OrderRollupRepository;
+import com.example.barista.util.QuantileSketch;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Real-traffic wait and turnaround percentiles from incrementally maintained rollups. Every
+ * committed completion is added to an in-memory delta for its hour x drink x barista cell; deltas
+ * are merged into "order_rollups" on a schedule, so reports read one row per cell in the range and
+ * never the orders themselves. Reports also include this instance's unflushed deltas.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderRollupService {
+
+    public enum GroupBy {
+        HOUR,
+        DRINK,
+        BARISTA
+    }
+
+    private final OrderRollupRepository orderRollupRepository;
+    private final BaristaRepository baristaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    private final Map<Cell, Delta> pending = new ConcurrentHashMap<>();
+
+    @Value("${barista.rollups.max-report-days:400}")
+    private long maxReportDays;
+
+    public void orderCompleted(Order order) {
+        if (order.getArrivalTime() == null || order.getStartedAt() == null || order.getCompletedAt() == null) {
+            return;
+        }
+        Cell cell = new Cell(order.getCompletedAt().truncatedTo(ChronoUnit.HOURS), order.getDrinkType(),
+                order.getAssignedBaristaId());
+        double waitSeconds = seconds(order.getArrivalTime(), order.getStartedAt());
+        double turnaroundSeconds = seconds(order.getArrivalTime(), order.getCompletedAt());
+        Runnable record = () -> pending.compute(cell, (key, delta) -> {
+            Delta target = delta != null ? delta : new Delta();
+            target.add(waitSeconds, turnaroundSeconds);
+            return target;
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record.run();
+                }
+            });
+        } else {
+            record.run();
+        }
+    }
+
+    /**
+     * Merges the pending deltas into their rollup rows in one transaction. If it fails (another
+     * instance updated or created the same row first), the deltas are kept for the next run.
+     */
+    @Scheduled(fixedDelayString = "${barista.rollups.flush-interval-ms:10000}")
+    @PreDestroy
+    public void flush() {
+        Map<Cell, Delta> batch = new HashMap<>();
+        for (Cell cell : pending.keySet()) {
+            Delta delta = pending.remove(cell);
+            if (delta != null) {
+                batch.put(cell, delta);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(this::mergeInto));
+        } catch (RuntimeException ex) {
+            batch.forEach((cell, delta) -> pending.merge(cell, delta, Delta::absorb));
+            log.warn("Rollup flush of {} cells failed, retrying on the next run: {}", batch.size(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Wait and turnaround percentiles of the orders completed in whole hours from {@code from}
+     * (rounded down) to {@code to} (rounded up), by default the last 24 hours, grouped by hour,
+     * drink or barista.
+     */
+    public TrafficReportDto report(LocalDateTime from, LocalDateTime to, GroupBy groupBy) {
+        LocalDateTime end = ceilHour(to != null ? to : LocalDateTime.now(clock));
+        LocalDateTime start = from != null ? from.truncatedTo(ChronoUnit.HOURS) : end.minusHours(24);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(start, end).toDays() > maxReportDays) {
+            throw new IllegalArgumentException("Reports cover at most " + maxReportDays + " days");
+        }
+
+        List<OrderRollup> rollups = orderRollupRepository.findByHourStartGreaterThanEqualAndHourStartLessThan(start, end);
+        Map<Object, Group> groups = new HashMap<>();
+        Group total = new Group("total", null);
+        for (OrderRollup rollup : rollups) {
+            Cell cell = new Cell(rollup.getHourStart(), rollup.getDrinkType(), rollup.getBaristaId());
+            QuantileSketch wait = QuantileSketch.fromBytes(rollup.getWaitSketch());
+            QuantileSketch turnaround = QuantileSketch.fromBytes(rollup.getTurnaroundSketch());
+            group(groups, cell, groupBy).add(wait, turnaround);
+            total.add(wait, turnaround);
+        }
+        pending.forEach((cell, delta) -> {
+            if (!cell.hourStart.isBefore(start) && cell.hourStart.isBefore(end)) {
+                Delta copy = delta.copy();
+                group(groups, cell, groupBy).add(copy.wait, copy.turnaround);
+                total.add(copy.wait, copy.turnaround);
+            }
+        });
+
+        if (groupBy == GroupBy.BARISTA) {
+            Map<Long, String> names = baristaRepository.findAll().stream()
+                    .collect(Collectors.toMap(Barista::getId, Barista::getName, (first, second) -> first));
+            groups.values().stream()
+                    .filter(group -> group.baristaId != null)
+                    .forEach(group -> group.key = names.getOrDefault(group.baristaId, "Barista #" + group.baristaId));
+        }
+
+        List<TrafficGroupDto> rows = groups.values().stream()
+                .sorted(Comparator.comparing((Group group) -> group.key)
+                        .thenComparing(group -> group.baristaId, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .map(Group::toDto)
+                .collect(Collectors.toList());
+        return new TrafficReportDto(groupBy.name(), start, end, rollups.size(), total.toDto(), rows);
+    }
+
+    private void mergeInto(Cell cell, Delta delta) {
+        OrderRollup rollup = orderRollupRepository
+                .findByHourStartAndDrinkTypeAndBaristaId(cell.hourStart, cell.drinkType, cell.baristaId)
+                .orElseGet(() -> OrderRollup.builder()
+                        .hourStart(cell.hourStart)
+                        .drinkType(cell.drinkType)
+                        .baristaId(cell.baristaId)
+                        .build());
+
+        QuantileSketch wait = QuantileSketch.fromBytes(rollup.getWaitSketch());
+        QuantileSketch turnaround = QuantileSketch.fromBytes(rollup.getTurnaroundSketch());
+        wait.merge(delta.wait);
+        turnaround.merge(delta.turnaround);
+
+        rollup.setCompletedOrders(rollup.getCompletedOrders() + delta.wait.getCount());
+        rollup.setWaitSketch(wait.toBytes());
+        rollup.setTurnaroundSketch(turnaround.toBytes());
+        orderRollupRepository.save(rollup);
+    }
+
+    private static Group group(Map<Object, Group> groups, Cell cell, GroupBy groupBy) {
+        return switch (groupBy) {
+            case HOUR -> groups.computeIfAbsent(cell.hourStart, key -> new Group(cell.hourStart.toString(), null));
+            case DRINK -> groups.computeIfAbsent(String.valueOf(cell.drinkType),
+                    key -> new Group(cell.drinkType != null ? cell.drinkType : "Unknown", null));
+            case BARISTA -> groups.computeIfAbsent(Objects.requireNonNullElse(cell.baristaId, -1L),
+                    key -> new Group("Unassigned", cell.baristaId));
+        };
+    }
+
+    private static LocalDateTime ceilHour(LocalDateTime time) {
+        LocalDateTime hour = time.truncatedTo(ChronoUnit.HOURS);
+        return hour.equals(time) ? hour : hour.plusHours(1);
+    }
+
+    private static double seconds(LocalDateTime from, LocalDateTime to) {
+        return Math.max(0, Duration.between(from, to).toMillis() / 1000.0);
+    }
+
+    private static final class Cell {
+        private final LocalDateTime hourStart;
+        private final String drinkType;
+        private final Long baristaId;
+
+        Cell(LocalDateTime hourStart, String drinkType, Long baristaId) {
+            this.hourStart = hourStart;
+            this.drinkType = drinkType;
+            this.baristaId = baristaId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Cell cell)) {
+                return false;
+            }
+            return hourStart.equals(cell.hourStart)
+                    && Objects.equals(drinkType, cell.drinkType)
+                    && Objects.equals(baristaId, cell.baristaId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hourStart, drinkType, baristaId);
+        }
+    }
+
+    // Mutated only inside ConcurrentHashMap.compute/merge; copy() is for readers outside it.
+    private static final class Delta {
+        private final QuantileSketch wait = new QuantileSketch();
+        private final QuantileSketch turnaround = new QuantileSketch();
+
+        synchronized void add(double waitSeconds, double turnaroundSeconds) {
+            wait.add(waitSeconds);
+            turnaround.add(turnaroundSeconds);
+        }
+
+        synchronized Delta absorb(Delta other) {
+            wait.merge(other.wait);
+            turnaround.merge(other.turnaround);
+            return this;
+        }
+
+        synchronized Delta copy() {
+            return new Delta().absorb(this);
+        }
+    }
+
+    private static final class Group {
+        private String key;
+        private final Long baristaId;
+        private final QuantileSketch wait = new QuantileSketch();
+        private final QuantileSketch turnaround = new QuantileSketch();
+
+        Group(String key, Long baristaId) {
+            this.key = key;
+            this.baristaId = baristaId;
+        }
+
+        void add(QuantileSketch waitSeconds, QuantileSketch turnaroundSeconds) {
+            wait.merge(waitSeconds);
+            turnaround.merge(turnaroundSeconds);
+        }
+
+        TrafficGroupDto toDto() {
+            return TrafficGroupDto.builder()
+                    .key(key)
+                    .baristaId(baristaId)
+                    .orders(wait.getCount())
+                    .averageWaitMinutes(wait.getMean() / 60)
+                    .waitP50Minutes(wait.quantile(0.50) / 60)
+                    .waitP90Minutes(wait.quantile(0.90) / 60)
+                    .waitP99Minutes(wait.quantile(0.99) / 60)
+                    .maxWaitMinutes(wait.getMax() / 60)
+                    .averageTurnaroundMinutes(turnaround.getMean() / 60)
+                    .turnaroundP50Minutes(turnaround.quantile(0.50) / 60)
+                    .turnaroundP90Minutes(turnaround.quantile(0.90) / 60)
+                    .turnaroundP99Minutes(turnaround.quantile(0.99) / 60)
+                    .maxTurnaroundMinutes(turnaround.getMax() / 60)
+                    .build();
+        }
+    }
+}
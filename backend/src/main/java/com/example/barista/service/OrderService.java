@@ -1,38 +1,68 @@
 package com.example.barista.service;
 
 import com.example.barista.dto.CreateOrderRequest;
+import com.example.barista.dto.OrderPageDto;
+import com.example.barista.dto.OrderSummaryDto;
 import com.example.barista.model.Order;
 import com.example.barista.repository.OrderRepository;
+import com.example.barista.util.KeysetCursor;
+import com.example.barista.util.PriorityCalculator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
-    private static final Map<String, Integer> PREP_TIME_BY_DRINK = Map.of(
-            "Cold Brew", 1,
-            "Espresso", 2,
-            "Americano", 2,
-            "Cappuccino", 4,
-            "Latte", 4,
-            "Specialty", 6,
-            "Mocha", 6
-    );
-
     private final OrderRepository orderRepository;
+    private final DispatchEngine dispatchEngine;
+    private final DispatchEventPublisher eventPublisher;
+    private final PrepTimeEstimator prepTimeEstimator;
+    private final OrderIntakeService orderIntakeService;
+    private final Clock clock;
+
+    @Value("${barista.intake.mode:direct}")
+    private IntakeMode intakeMode;
+
+    @Value("${barista.orders.max-page-size:500}")
+    private int maxPageSize;
 
+    /**
+     * Saves a new order, or in journal intake mode journals it and returns it without an id; it
+     * reaches the table and the dispatcher when the {@link OrderIntakeService} drains.
+     */
     public Order createOrder(CreateOrderRequest request) {
-        int prepTime = PREP_TIME_BY_DRINK.getOrDefault(request.getDrinkType(), 4);
+        Order order = newOrder(request, LocalDateTime.now(clock));
+        order.setPrepTime(prepTimeEstimator.estimate(request.getDrinkType()));
+        order.setZone(dispatchEngine.routeZone(request.getZone()));
+        if (intakeMode == IntakeMode.JOURNAL) {
+            return orderIntakeService.accept(order);
+        }
 
-        Order order = Order.builder()
+        Order saved = orderRepository.save(order);
+        dispatchEngine.orderCreated(saved);
+        eventPublisher.orderCreated(saved);
+        return saved;
+    }
+
+    /**
+     * The WAITING order {@link #createOrder} would persist for {@code request}, at the menu's default
+     * prep time; trace replays build their simulated arrivals with it too.
+     */
+    public static Order newOrder(CreateOrderRequest request, LocalDateTime arrivalTime) {
+        int prepTime = PrepTimeEstimator.defaultMinutes(request.getDrinkType());
+
+        return Order.builder()
                 .drinkType(request.getDrinkType())
                 .prepTime(prepTime)
-                .arrivalTime(LocalDateTime.now())
+                .arrivalTime(arrivalTime)
             .customerName(request.getCustomerName())
             .customerPhone(request.getCustomerPhone())
             .customerId(0L)
@@ -40,16 +70,54 @@ public class OrderService {
                 .rushOrder(request.isRushOrder())
                 .priorityScore(0)
                 .status("WAITING")
+                .zone(request.getZone())
                 .build();
-
-        return orderRepository.save(order);
     }
 
-    public List<Order> getOrdersByStatus(String status) {
-        if (status == null || status.isBlank()) {
-            return orderRepository.findAll();
+    /**
+     * One keyset page of orders, ordered by arrival within a status (by status first when none is
+     * given). {@code cursor} is the {@code nextCursor} of the previous page.
+     */
+    public OrderPageDto getOrders(String status, String cursor, int limit, boolean newestFirst) {
+        String normalizedStatus = status == null || status.isBlank() ? null : status.toUpperCase();
+        if (newestFirst && normalizedStatus == null) {
+            throw new IllegalArgumentException("newestFirst requires a status");
         }
-        return orderRepository.findByStatus(status.toUpperCase());
+
+        int pageSize = Math.min(Math.max(limit, 1), maxPageSize);
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        KeysetCursor after = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+        if (after != null && normalizedStatus != null && !normalizedStatus.equals(after.getPartition())) {
+            throw new IllegalArgumentException("Cursor belongs to a different status");
+        }
+
+        List<OrderSummaryDto> orders;
+        if (normalizedStatus == null) {
+            orders = after == null
+                    ? orderRepository.findSummaries(page)
+                    : orderRepository.findSummariesAfter(after.getPartition(), after.getTime(), after.getId(), page);
+        } else if (newestFirst) {
+            orders = after == null
+                    ? orderRepository.findSummariesByStatusNewestFirst(normalizedStatus, page)
+                    : orderRepository.findSummariesByStatusBefore(normalizedStatus, after.getTime(), after.getId(), page);
+        } else {
+            orders = after == null
+                    ? orderRepository.findSummariesByStatus(normalizedStatus, page)
+                    : orderRepository.findSummariesByStatusAfter(normalizedStatus, after.getTime(), after.getId(), page);
+        }
+
+        String nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = orders.subList(0, pageSize);
+            OrderSummaryDto last = orders.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getStatus(), last.getArrivalTime(), last.getId()).encode();
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        orders.stream()
+                .filter(order -> "WAITING".equals(order.getStatus()))
+                .forEach(order -> order.setPriorityScore(liveScore(order, now)));
+        return new OrderPageDto(orders, nextCursor);
     }
 
     public Optional<Order> getOrder(Long id) {
@@ -59,4 +127,10 @@ public class OrderService {
     public Order updateOrder(Order order) {
         return orderRepository.save(order);
     }
+
+    private static double liveScore(OrderSummaryDto order, LocalDateTime now) {
+        return PriorityCalculator.staticScore(order.getPrepTime(), order.isLoyaltyCustomer(),
+                order.isRushOrder(), order.getSkippedByLaterCount())
+                + PriorityCalculator.waitScore(PriorityCalculator.waitMinutes(order.getArrivalTime(), now));
+    }
 }
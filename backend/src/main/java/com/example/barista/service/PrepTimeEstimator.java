@@ -0,0 +1,206 @@
+package com.example.barista.service;
+
+import com.example.barista.model.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Prep-time estimates learned from how long orders actually take. Each observed
+ * {@code startedAt -> completedAt} updates an exponentially weighted average for the drink and a
+ * speed factor for the barista (actual over the drink's estimate) with a CAS, never a lock.
+ * Readers never touch those: a refresh rounds them into an immutable snapshot that is swapped in
+ * atomically, so an estimate is two map lookups. Until a drink has been seen it uses the menu
+ * default, and learning starts over from the defaults on every boot.
+ *
+ * <p>Learning is off unless {@code barista.prep-time.learning} is set. While it is on, the timer
+ * and sweep only complete an order nobody marked done after {@code auto-complete-factor} times its
+ * estimate, so a barista's "done" can land on either side of the estimate. Such an
+ * auto-completion is not learned from: it is censored at a multiple of the very estimate it would
+ * update, so it could only ever push that estimate up. Learned values also stay within
+ * {@code MAX_SAMPLE_RATIO} of the menu default and of an average barista.
+ */
+@Slf4j
+@Service
+public class PrepTimeEstimator {
+
+    static final Map<String, Integer> DEFAULT_PREP_MINUTES = Map.of(
+            "Cold Brew", 1,
+            "Espresso", 2,
+            "Americano", 2,
+            "Cappuccino", 4,
+            "Latte", 4,
+            "Specialty", 6,
+            "Mocha", 6
+    );
+    static final int UNKNOWN_DRINK_PREP_MINUTES = 4;
+
+    // one forgotten "done" tap should not move an estimate more than this factor either way
+    private static final double MAX_SAMPLE_RATIO = 4;
+
+    private final Map<String, Ewma> minutesByDrink = new ConcurrentHashMap<>();
+    private final Map<Long, Ewma> speedByBarista = new ConcurrentHashMap<>();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.defaults());
+
+    @Value("${barista.prep-time.smoothing:0.1}")
+    private double smoothing;
+
+    @Value("${barista.prep-time.learning:false}")
+    private boolean learning;
+
+    @Value("${barista.prep-time.auto-complete-factor:2.0}")
+    private double autoCompleteFactor;
+
+    public static int defaultMinutes(String drinkType) {
+        return drinkType == null
+                ? UNKNOWN_DRINK_PREP_MINUTES
+                : DEFAULT_PREP_MINUTES.getOrDefault(drinkType, UNKNOWN_DRINK_PREP_MINUTES);
+    }
+
+    /**
+     * Minutes {@code drinkType} takes an average barista; what intake stores and priority scores.
+     */
+    public int estimate(String drinkType) {
+        return snapshot.get().minutes(drinkType, null);
+    }
+
+    /**
+     * Minutes {@code drinkType} takes {@code baristaId}; what an assignment books and times.
+     */
+    public int estimate(String drinkType, Long baristaId) {
+        return snapshot.get().minutes(drinkType, baristaId);
+    }
+
+    /**
+     * Seconds of auto-completion deadline per booked prep minute; 60 when not learning.
+     */
+    public int autoCompleteSecondsPerPrepMinute() {
+        return learning ? (int) Math.round(60 * Math.max(1, autoCompleteFactor)) : 60;
+    }
+
+    /**
+     * When the timer and sweep complete {@code order} if nobody has marked it done.
+     */
+    public LocalDateTime autoCompleteAt(Order order) {
+        return order.getStartedAt().plusSeconds((long) order.getPrepTime() * autoCompleteSecondsPerPrepMinute());
+    }
+
+    /**
+     * Learns from an order someone marked done.
+     */
+    public void observe(Order order) {
+        if (!learning || order.getStartedAt() == null || order.getCompletedAt() == null
+                || order.getDrinkType() == null) {
+            return;
+        }
+        double actual = Duration.between(order.getStartedAt(), order.getCompletedAt()).toMillis() / 60_000.0;
+        if (actual <= 0) {
+            return;
+        }
+
+        int defaultMinutes = defaultMinutes(order.getDrinkType());
+        Ewma drink = minutesByDrink.computeIfAbsent(order.getDrinkType(), key -> new Ewma(defaultMinutes));
+        Ewma speed = order.getAssignedBaristaId() == null
+                ? null
+                : speedByBarista.computeIfAbsent(order.getAssignedBaristaId(), key -> new Ewma(1));
+
+        double drinkMinutes = drink.get();
+        double baristaSpeed = speed != null ? speed.get() : 1;
+        // each sample is held near the current value, and then near the starting value, so no run of
+        // samples can walk an estimate away without limit
+        if (speed != null) {
+            speed.update(clamp(clamp(actual / drinkMinutes, baristaSpeed), 1), smoothing);
+        }
+        // the drink learns what an average barista would have taken
+        drink.update(clamp(clamp(actual / baristaSpeed, drinkMinutes), defaultMinutes), smoothing);
+    }
+
+    /**
+     * Publishes what has been learned since the last refresh.
+     */
+    @Scheduled(fixedDelayString = "${barista.prep-time.refresh-interval-ms:30000}")
+    public void refresh() {
+        Map<String, Double> drinks = new HashMap<>();
+        minutesByDrink.forEach((drinkType, minutes) -> drinks.put(drinkType, minutes.get()));
+        Map<Long, Double> speeds = new HashMap<>();
+        speedByBarista.forEach((baristaId, speed) -> speeds.put(baristaId, speed.get()));
+
+        Snapshot next = new Snapshot(drinks, speeds);
+        Snapshot previous = snapshot.getAndSet(next);
+        if (!next.drinkMinutes.equals(previous.drinkMinutes)) {
+            log.info("Prep-time estimates now {}", next.drinkMinutes);
+        }
+    }
+
+    private static double clamp(double sample, double current) {
+        return Math.max(current / MAX_SAMPLE_RATIO, Math.min(current * MAX_SAMPLE_RATIO, sample));
+    }
+
+    private static final class Ewma {
+        private final AtomicLong bits;
+
+        Ewma(double initial) {
+            this.bits = new AtomicLong(Double.doubleToLongBits(initial));
+        }
+
+        double get() {
+            return Double.longBitsToDouble(bits.get());
+        }
+
+        void update(double sample, double weight) {
+            long current;
+            long next;
+            do {
+                current = bits.get();
+                double value = Double.longBitsToDouble(current);
+                next = Double.doubleToLongBits(value + weight * (sample - value));
+            } while (!bits.compareAndSet(current, next));
+        }
+    }
+
+    private static final class Snapshot {
+        // rounded drink minutes, ready to serve; the raw averages stay for the barista scaling
+        private final Map<String, Integer> drinkMinutes;
+        private final Map<String, Double> rawDrinkMinutes;
+        private final Map<Long, Double> baristaSpeeds;
+
+        Snapshot(Map<String, Double> learnedDrinkMinutes, Map<Long, Double> baristaSpeeds) {
+            Map<String, Double> raw = new HashMap<>();
+            DEFAULT_PREP_MINUTES.forEach((drinkType, minutes) -> raw.put(drinkType, (double) minutes));
+            raw.putAll(learnedDrinkMinutes);
+
+            Map<String, Integer> rounded = new HashMap<>();
+            raw.forEach((drinkType, minutes) -> rounded.put(drinkType, toMinutes(minutes)));
+            this.drinkMinutes = Map.copyOf(rounded);
+            this.rawDrinkMinutes = Map.copyOf(raw);
+            this.baristaSpeeds = Map.copyOf(baristaSpeeds);
+        }
+
+        static Snapshot defaults() {
+            return new Snapshot(Map.of(), Map.of());
+        }
+
+        int minutes(String drinkType, Long baristaId) {
+            Double speed = baristaId != null ? baristaSpeeds.get(baristaId) : null;
+            if (drinkType == null) {
+                return speed == null ? UNKNOWN_DRINK_PREP_MINUTES : toMinutes(UNKNOWN_DRINK_PREP_MINUTES * speed);
+            }
+            if (speed == null) {
+                return drinkMinutes.getOrDefault(drinkType, UNKNOWN_DRINK_PREP_MINUTES);
+            }
+            return toMinutes(rawDrinkMinutes.getOrDefault(drinkType, (double) UNKNOWN_DRINK_PREP_MINUTES) * speed);
+        }
+
+        private static int toMinutes(double minutes) {
+            return Math.max(1, (int) Math.round(minutes));
+        }
+    }
+}
@@ -4,108 +4,534 @@ import com.example.barista.model.Barista;
 import com.example.barista.model.Order;
 import com.example.barista.repository.BaristaRepository;
 import com.example.barista.repository.OrderRepository;
-import com.example.barista.util.PriorityCalculator;
+import com.example.barista.service.AssignmentStrategy.Assignment;
+import com.example.barista.service.DispatchMetrics.Stage;
+import com.example.barista.util.PriorityIndex;
+import com.example.barista.util.PriorityIndex.PrepClass;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import java.time.Duration;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SchedulingAgentService {
 
+    // SQL Server caps a statement at 2100 parameters
+    private static final int BULK_UPDATE_CHUNK_SIZE = 1000;
+
+    static final long EMERGENCY_WAIT_MINUTES = 10;
+
     private final OrderRepository orderRepository;
     private final BaristaRepository baristaRepository;
+    private final DispatchEngine dispatchEngine;
+    private final CompletionScheduler completionScheduler;
+    private final DispatchEventPublisher eventPublisher;
+    private final DispatchTrigger dispatchTrigger;
+    private final DispatchMetrics dispatchMetrics;
+    private final OrderRollupService orderRollupService;
+    private final PrepTimeEstimator prepTimeEstimator;
+    private final Map<String, AssignmentStrategy> assignmentStrategies;
+    private final Clock clock;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${barista.dispatch.mode:memory}")
+    private DispatchMode dispatchMode;
+
+    @Value("${barista.dispatch.strategy:greedy}")
+    private String strategyName;
+
+    @Value("${barista.dispatch.zone-parallelism:0}")
+    private int zoneParallelism;
+
+    @Value("${barista.dispatch.steal-backlog-per-barista:2}")
+    private double stealBacklogPerBarista;
+
+    private ExecutorService zoneWorkers;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rehydrateDispatchState() {
+        if (dispatchMode == DispatchMode.MEMORY) {
+            dispatchEngine.rehydrate();
+        }
+        loadInProgressOrders().forEach(completionScheduler::arm);
+    }
 
     @Scheduled(fixedRate = 30000)
     public void assignOrders() {
+        requestDispatch();
+    }
 
-        List<Order> waitingOrders = orderRepository.findByStatusOrderByArrivalTimeAsc("WAITING");
-        List<Barista> baristas = baristaRepository.findAll();
+    /**
+     * Asks the {@link DispatchTrigger} for a pass. Inside a transaction the request waits for
+     * commit, so the pass sees what the caller just freed or created.
+     */
+    public void requestDispatch() {
+        afterCommit(dispatchTrigger::request);
+    }
 
-        waitingOrders.forEach(order ->
-                order.setPriorityScore(PriorityCalculator.calculate(order))
-        );
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // A zone pass changes the resident engine as it claims rows; if its transaction does not
+    // commit, the engine no longer matches the tables and is rebuilt from them on next use.
+    private void reloadEngineUnlessCommitted() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    dispatchEngine.invalidate();
+                }
+            }
+        });
+    }
+
+    public void runDispatchPass() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        DispatchMetrics.Pass pass = dispatchMetrics.startPass();
+
+        try {
+            if (dispatchMode == DispatchMode.MEMORY) {
+                dispatchZones(now, pass);
+            } else {
+                transactionTemplate.executeWithoutResult(status -> dispatchFromTables(now, pass));
+            }
+        } finally {
+            pass.finish();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (zoneWorkers != null) {
+            zoneWorkers.shutdownNow();
+        }
+    }
+
+    // Each zone dispatches under its own lock and transaction, in parallel; then every idle zone
+    // steals one batch from the most backed-up other zone, one steal at a time.
+    private void dispatchZones(LocalDateTime now, DispatchMetrics.Pass pass) {
+        List<String> zones = dispatchEngine.getZones();
+        List<DispatchMetrics.Pass> zonePasses = new ArrayList<>();
+        List<Callable<Void>> zoneTasks = new ArrayList<>();
+        for (String zone : zones) {
+            DispatchMetrics.Pass zonePass = pass.forZone();
+            zonePasses.add(zonePass);
+            zoneTasks.add(() -> {
+                transactionTemplate.executeWithoutResult(status -> {
+                    reloadEngineUnlessCommitted();
+                    dispatchEngine.withZone(zone, (waitingOrders, baristas) -> {
+                        zonePass.time(Stage.SCORE, () -> waitingOrders.advanceTo(now));
+                        dispatch(waitingOrders, baristas, now, zonePass);
+                    });
+                });
+                return null;
+            });
+        }
+
+        RuntimeException failure = runAll(zoneTasks);
+        zonePasses.forEach(pass::absorb);
 
-        waitingOrders.sort(
-                Comparator.comparingDouble(Order::getPriorityScore).reversed()
+        for (String thief : zones) {
+            if (!dispatchEngine.isIdle(thief)) {
+                continue;
+            }
+            dispatchEngine.mostBackloggedZone(thief, stealBacklogPerBarista).ifPresent(victim ->
+                    transactionTemplate.executeWithoutResult(status -> {
+                        reloadEngineUnlessCommitted();
+                        dispatchEngine.withStolenWork(thief, victim, (waitingOrders, baristas) ->
+                                dispatch(waitingOrders, baristas, now, pass)
+                        );
+                    })
+            );
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void dispatchFromTables(LocalDateTime now, DispatchMetrics.Pass pass) {
+        List<Order> waiting = pass.time(Stage.LOAD, () ->
+                orderRepository.findByStatusOrderByArrivalTimeAsc("WAITING")
         );
+        List<Barista> baristas = pass.time(Stage.LOAD, () -> baristaRepository.findAll());
+        Map<String, PriorityIndex> waitingByZone = pass.time(Stage.SORT, () -> waiting.stream()
+                .collect(Collectors.groupingBy(
+                        order -> DispatchEngine.zoneOf(order.getZone()),
+                        TreeMap::new,
+                        Collectors.collectingAndThen(Collectors.toList(), orders -> PriorityIndex.of(orders, now))
+                )));
+        Map<String, List<Barista>> baristasByZone = baristas.stream()
+                .collect(Collectors.groupingBy(barista -> DispatchEngine.zoneOf(barista.getZone()), TreeMap::new,
+                        Collectors.toList()));
+
+        baristasByZone.forEach((zone, roster) -> dispatch(
+                waitingByZone.computeIfAbsent(zone, key -> new PriorityIndex(now)), roster, now, pass
+        ));
+
+        baristasByZone.forEach((thief, roster) -> {
+            if (!waitingByZone.get(thief).isEmpty() || roster.stream().noneMatch(Barista::isAvailable)) {
+                return;
+            }
+            waitingByZone.entrySet().stream()
+                    .filter(zone -> !zone.getKey().equals(thief))
+                    .filter(zone -> backlogPerBarista(zone.getValue(), baristasByZone.get(zone.getKey()))
+                            >= stealBacklogPerBarista)
+                    .max(Comparator.comparingDouble(zone ->
+                            backlogPerBarista(zone.getValue(), baristasByZone.get(zone.getKey()))))
+                    .ifPresent(victim -> dispatch(victim.getValue(), roster, now, pass));
+        });
+    }
+
+    private static double backlogPerBarista(PriorityIndex waitingOrders, List<Barista> roster) {
+        return DispatchEngine.backlogPerBarista(waitingOrders.size(), roster == null ? 0 : roster.size());
+    }
+
+    // Runs every task, on the zone workers when there is more than one; returns the first failure.
+    private RuntimeException runAll(List<Callable<Void>> tasks) {
+        if (tasks.size() == 1) {
+            try {
+                tasks.get(0).call();
+                return null;
+            } catch (RuntimeException ex) {
+                return ex;
+            } catch (Exception ex) {
+                return new IllegalStateException(ex);
+            }
+        }
+
+        RuntimeException failure = null;
+        try {
+            for (Future<Void> result : zoneWorkers().invokeAll(tasks)) {
+                try {
+                    result.get();
+                } catch (ExecutionException ex) {
+                    if (failure == null) {
+                        failure = ex.getCause() instanceof RuntimeException runtime
+                                ? runtime
+                                : new IllegalStateException(ex.getCause());
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return new IllegalStateException("Interrupted while zones were dispatching", ex);
+        }
+        return failure;
+    }
+
+    private synchronized ExecutorService zoneWorkers() {
+        if (zoneWorkers == null) {
+            int threads = zoneParallelism > 0 ? zoneParallelism : Runtime.getRuntime().availableProcessors();
+            AtomicInteger sequence = new AtomicInteger();
+            zoneWorkers = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "dispatch-zone-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return zoneWorkers;
+    }
+
+    // Every transition is a conditional UPDATE, so another pass or instance can never take the same
+    // barista or order; the entities are only brought in line with the row afterwards.
+    private void dispatch(PriorityIndex waitingOrders, List<Barista> baristas, LocalDateTime now,
+                          DispatchMetrics.Pass pass) {
+        pass.scanned(waitingOrders.size());
+        List<Barista> freeBaristas = baristas.stream().filter(Barista::isAvailable).toList();
+        if (waitingOrders.isEmpty() || freeBaristas.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> skipDeltas = new HashMap<>();
+        // orders a claim could not settle, returned to the index once the plan is done
+        List<Order> contended = new ArrayList<>();
 
         double averageWorkload = baristas.stream()
                 .mapToInt(Barista::getWorkloadMinutes)
                 .average()
                 .orElse(0);
 
-        for (Barista barista : baristas) {
-            if (barista.isAvailable() && !waitingOrders.isEmpty()) {
+        List<Assignment> plan = pass.time(Stage.SELECT, () ->
+                assignmentStrategy().plan(freeBaristas, waitingOrders, averageWorkload)
+        );
 
-                Order order = getEmergencyOrder(waitingOrders)
-                        .orElseGet(() -> selectOrderForBarista(barista, waitingOrders, averageWorkload));
+        for (int position = 0; position < plan.size(); position++) {
+            Barista barista = plan.get(position).getBarista();
+            Order planned = plan.get(position).getOrder();
 
-                waitingOrders.remove(order);
-                order.setStatus("IN_PROGRESS");
-                order.setAssignedBaristaId(barista.getId());
-                order.setStartedAt(LocalDateTime.now());
+            if (pass.time(Stage.PERSIST, () -> baristaRepository.claimAvailable(barista.getId())) == 0) {
+                // taken elsewhere, or mid-completion; the next pass sees it settled
+                waitingOrders.add(planned);
+                continue;
+            }
 
-                barista.setAvailable(false);
-                barista.setCurrentOrderId(order.getId());
-                barista.setWorkloadMinutes(
-                        barista.getWorkloadMinutes() + order.getPrepTime()
-                );
+            Optional<Order> claimed = claimOrder(barista, planned, plan.get(position).isEmergency(),
+                    waitingOrders, skipDeltas, contended, now, pass);
+            if (claimed.isEmpty()) {
+                claimed = claimNextOrder(barista, waitingOrders, averageWorkload, skipDeltas, contended, now, pass);
+            }
+            if (claimed.isEmpty()) {
+                pass.time(Stage.PERSIST, () -> baristaRepository.releaseUnassigned(barista.getId()));
+                barista.setVersion(barista.getVersion() + 2);
+                continue;
+            }
 
-                incrementFairnessSkips(waitingOrders, order);
+            Order order = claimed.get();
+            pass.time(Stage.PERSIST, () ->
+                    baristaRepository.assignClaimed(barista.getId(), order.getId(), order.getPrepTime())
+            );
+            barista.setAvailable(false);
+            barista.setCurrentOrderId(order.getId());
+            barista.setWorkloadMinutes(
+                    barista.getWorkloadMinutes() + order.getPrepTime()
+            );
+            barista.setVersion(barista.getVersion() + 2);
 
-                orderRepository.save(order);
-                baristaRepository.save(barista);
-            }
+            List<Assignment> stillPlanned = plan.subList(position + 1, plan.size());
+            pass.time(Stage.SCORE, () -> recordFairnessSkips(waitingOrders, stillPlanned, order, skipDeltas));
+
+            dispatchEngine.orderAssigned(order, barista);
+            afterCommit(() -> completionScheduler.arm(order));
+            eventPublisher.orderAssigned(order, barista);
         }
+
+        contended.forEach(waitingOrders::add);
+        pass.skipRowsRewritten(pass.time(Stage.PERSIST, () -> flushFairnessSkips(waitingOrders, skipDeltas)));
     }
 
-    @Scheduled(fixedRate = 5000)
-    public void completeFinishedOrders() {
-        List<Order> inProgressOrders = orderRepository.findByStatus("IN_PROGRESS");
-        LocalDateTime now = LocalDateTime.now();
-        boolean anyCompleted = false;
+    private AssignmentStrategy assignmentStrategy() {
+        AssignmentStrategy strategy = assignmentStrategies.get(strategyName);
+        if (strategy == null) {
+            throw new IllegalStateException("Unknown barista.dispatch.strategy '" + strategyName
+                    + "', expected one of " + assignmentStrategies.keySet());
+        }
+        return strategy;
+    }
 
-        for (Order order : inProgressOrders) {
-            LocalDateTime startedAt = order.getStartedAt();
-            if (startedAt == null) {
-                continue;
+    // Greedy fallback once the planned order was claimed or cancelled elsewhere.
+    private Optional<Order> claimNextOrder(Barista barista, PriorityIndex waitingOrders, double averageWorkload,
+                                           Map<Long, Integer> skipDeltas, List<Order> contended,
+                                           LocalDateTime now, DispatchMetrics.Pass pass) {
+        while (!waitingOrders.isEmpty()) {
+            Optional<Order> emergencyOrder = pass.time(Stage.SELECT, () -> getEmergencyOrder(waitingOrders));
+            Order order = emergencyOrder.orElseGet(() -> pass.time(Stage.SELECT, () ->
+                    selectOrderForBarista(barista, waitingOrders, averageWorkload)
+            ));
+            waitingOrders.remove(order.getId());
+
+            Optional<Order> claimed = claimOrder(barista, order, emergencyOrder.isPresent(),
+                    waitingOrders, skipDeltas, contended, now, pass);
+            if (claimed.isPresent()) {
+                return claimed;
             }
+            // claimed elsewhere, or held by another transaction and set aside; try the next one
+        }
+        return Optional.empty();
+    }
 
-            LocalDateTime expectedComplete = startedAt.plusMinutes(order.getPrepTime());
-            if (now.isBefore(expectedComplete)) {
-                continue;
+    // The order must already be out of the index. If the claim misses, it goes to contended unless
+    // the row is known to have left WAITING: the claim skips rows other transactions hold, and one
+    // of those may yet roll back.
+    private Optional<Order> claimOrder(Barista barista, Order order, boolean emergency, PriorityIndex waitingOrders,
+                                       Map<Long, Integer> skipDeltas, List<Order> contended, LocalDateTime now,
+                                       DispatchMetrics.Pass pass) {
+        double priorityScore = waitingOrders.score(order);
+        int pendingSkips = Optional.ofNullable(skipDeltas.remove(order.getId())).orElse(0);
+        // booked and timed at this barista's pace for the drink
+        int prepTime = prepTimeEstimator.estimate(order.getDrinkType(), barista.getId());
+
+        int claimed = pass.time(Stage.PERSIST, () ->
+                orderRepository.claimWaiting(order.getId(), barista.getId(), now, prepTime, priorityScore, pendingSkips)
+        );
+        if (claimed != 1) {
+            // waits out whoever holds the row, so this is the committed status
+            Optional<String> status = pass.time(Stage.PERSIST, () -> orderRepository.findStatusById(order.getId()));
+            if (status.filter("WAITING"::equals).isPresent()) {
+                contended.add(order);
+                if (pendingSkips != 0) {
+                    skipDeltas.put(order.getId(), pendingSkips);
+                }
             }
+            return Optional.empty();
+        }
+        pass.assigned(emergency);
+        order.setPriorityScore(priorityScore);
+        order.setSkippedByLaterCount(order.getSkippedByLaterCount() + pendingSkips);
+        order.setStatus("IN_PROGRESS");
+        order.setAssignedBaristaId(barista.getId());
+        order.setStartedAt(now);
+        order.setPrepTime(prepTime);
+        order.setVersion(order.getVersion() + 1);
+        return Optional.of(order);
+    }
+
+    /**
+     * Reconciliation sweep: due orders are found and row-locked in SQL, then completed and their
+     * baristas freed with one bulk UPDATE each (per chunk of ids), all in this transaction.
+     */
+    @Scheduled(fixedRateString = "${barista.completion.sweep-interval-ms:60000}")
+    @Transactional
+    public synchronized void completeFinishedOrders() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<Order> dueOrders = orderRepository.lockDueInProgress(now,
+                prepTimeEstimator.autoCompleteSecondsPerPrepMinute());
+        if (dueOrders.isEmpty()) {
+            return;
+        }
 
+        List<Long> orderIds = dueOrders.stream().map(Order::getId).toList();
+        for (int from = 0; from < orderIds.size(); from += BULK_UPDATE_CHUNK_SIZE) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + BULK_UPDATE_CHUNK_SIZE, orderIds.size()));
+            orderRepository.completeAllInProgress(chunk, now);
+            baristaRepository.releaseFromOrders(chunk);
+        }
+
+        for (Order order : dueOrders) {
+            completionScheduler.recordLag(order, now, "sweep");
             order.setStatus("COMPLETED");
             order.setCompletedAt(now);
-            anyCompleted = true;
+            order.setVersion(order.getVersion() + 1);
+            orderCompleted(order);
+        }
 
-            if (order.getAssignedBaristaId() != null) {
-                baristaRepository.findById(order.getAssignedBaristaId())
-                        .ifPresent(barista -> {
-                            barista.setAvailable(true);
-                            barista.setCurrentOrderId(null);
-                            baristaRepository.save(barista);
-                        });
-            }
+        Map<Long, Long> orderIdByBarista = dueOrders.stream()
+                .filter(order -> order.getAssignedBaristaId() != null)
+                .collect(Collectors.toMap(Order::getAssignedBaristaId, Order::getId, (first, second) -> first));
+        if (dispatchMode == DispatchMode.MEMORY) {
+            orderIdByBarista.forEach(this::baristaReleased);
+        } else {
+            baristaRepository.findAllById(orderIdByBarista.keySet()).stream()
+                    .filter(Barista::isAvailable)
+                    .forEach(eventPublisher::baristaFreed);
+        }
+
+        requestDispatch();
+    }
+
+    @Transactional
+    public synchronized void completeDueOrder(Long orderId) {
+        Optional<Order> dueOrder = dispatchMode == DispatchMode.MEMORY
+                ? dispatchEngine.getInProgressOrder(orderId)
+                : orderRepository.findById(orderId);
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        dueOrder.filter(order -> "IN_PROGRESS".equals(order.getStatus()))
+                .ifPresent(order -> {
+                    completionScheduler.recordLag(order, now, "timer");
+                    if (complete(order, now, false)) {
+                        requestDispatch();
+                    }
+                });
+    }
 
-            orderRepository.save(order);
+    /**
+     * Completes an order someone marked done; its prep time is learned from.
+     *
+     * @throws IllegalStateException if the order is not IN_PROGRESS (still waiting, or already
+     *                               completed by a timer, the sweep or another instance)
+     */
+    @Transactional
+    public synchronized Order completeOrder(Order order, LocalDateTime completedAt) {
+        if (!complete(order, completedAt, true)) {
+            throw new IllegalStateException("Order " + order.getId() + " is not in progress");
         }
+        return order;
+    }
+
+    // False, with engine and timers left alone, when the conditional update found no IN_PROGRESS row.
+    private boolean complete(Order order, LocalDateTime completedAt, boolean markedDone) {
+        if (orderRepository.completeInProgress(order.getId(), completedAt) == 0) {
+            return false;
+        }
+
+        order.setStatus("COMPLETED");
+        order.setCompletedAt(completedAt);
+        order.setVersion(order.getVersion() + 1);
+        orderCompleted(order);
+        if (markedDone) {
+            prepTimeEstimator.observe(order);
+        }
+
+        Long baristaId = order.getAssignedBaristaId();
+        if (baristaId != null && baristaRepository.releaseFromOrder(baristaId, order.getId()) == 1) {
+            if (dispatchMode == DispatchMode.MEMORY) {
+                baristaReleased(baristaId, order.getId());
+            } else {
+                // by-id cache evictions wait for commit, so read past the cache
+                baristaRepository.findAllById(List.of(baristaId)).forEach(eventPublisher::baristaFreed);
+            }
+        }
+
+        return true;
+    }
+
+    private void orderCompleted(Order order) {
+        dispatchEngine.orderCompleted(order);
+        completionScheduler.disarm(order.getId());
+        dispatchMetrics.orderCompleted(order);
+        orderRollupService.orderCompleted(order);
+        eventPublisher.orderCompleted(order);
+    }
+
+    // Mirrors a barista release into the resident roster, if the engine still has it on that order.
+    private void baristaReleased(Long baristaId, Long orderId) {
+        dispatchEngine.getBarista(baristaId)
+                .filter(barista -> orderId.equals(barista.getCurrentOrderId()))
+                .ifPresent(barista -> {
+                    barista.setAvailable(true);
+                    barista.setCurrentOrderId(null);
+                    barista.setVersion(barista.getVersion() + 1);
+                    dispatchEngine.baristaUpdated(barista);
+                    eventPublisher.baristaFreed(barista);
+                });
+    }
 
-        if (anyCompleted) {
-            assignOrders();
+    private List<Order> loadInProgressOrders() {
+        if (dispatchMode == DispatchMode.MEMORY) {
+            return dispatchEngine.getInProgressOrders();
         }
+        return orderRepository.findByStatus("IN_PROGRESS");
     }
 
-    private Order selectOrderForBarista(Barista barista, List<Order> waitingOrders, double averageWorkload) {
+    static Order selectOrderForBarista(Barista barista, PriorityIndex waitingOrders, double averageWorkload) {
+        Order topOrder = waitingOrders.first().orElseThrow();
         if (averageWorkload <= 0) {
-            return waitingOrders.get(0);
+            return topOrder;
         }
 
         double ratio = barista.getWorkloadMinutes() / averageWorkload;
@@ -113,39 +539,73 @@ public class SchedulingAgentService {
         boolean underutilized = ratio < 0.8;
 
         if (overloaded) {
-            Optional<Order> quickOrder = waitingOrders.stream()
-                    .filter(order -> order.getPrepTime() <= 2)
-                    .findFirst();
+            Optional<Order> quickOrder = waitingOrders.first(PrepClass.QUICK);
             if (quickOrder.isPresent()) {
                 return quickOrder.get();
             }
         }
 
         if (underutilized) {
-            Optional<Order> complexOrder = waitingOrders.stream()
-                    .filter(order -> order.getPrepTime() >= 4)
-                    .findFirst();
+            Optional<Order> complexOrder = waitingOrders.first(PrepClass.COMPLEX);
             if (complexOrder.isPresent()) {
                 return complexOrder.get();
             }
         }
 
-        return waitingOrders.get(0);
+        return topOrder;
     }
 
-    private void incrementFairnessSkips(List<Order> remainingOrders, Order servedOrder) {
-        for (Order order : remainingOrders) {
-            if (order.getArrivalTime().isBefore(servedOrder.getArrivalTime())) {
-                order.setSkippedByLaterCount(order.getSkippedByLaterCount() + 1);
+    static void incrementFairnessSkips(PriorityIndex remainingOrders, Order servedOrder, Map<Long, Integer> skipDeltas) {
+        remainingOrders.forEachArrivedBefore(servedOrder.getArrivalTime(), order ->
+                skipDeltas.merge(order.getId(), 1, Integer::sum)
+        );
+    }
+
+    // Orders planned later in the pass are out of the index but still waiting, so they count too.
+    static void recordFairnessSkips(PriorityIndex remainingOrders, List<Assignment> stillPlanned, Order servedOrder,
+                                    Map<Long, Integer> skipDeltas) {
+        incrementFairnessSkips(remainingOrders, servedOrder, skipDeltas);
+        for (Assignment later : stillPlanned) {
+            if (later.getOrder().getArrivalTime().isBefore(servedOrder.getArrivalTime())) {
+                skipDeltas.merge(later.getOrder().getId(), 1, Integer::sum);
+            }
+        }
+    }
+
+    private int flushFairnessSkips(PriorityIndex remainingOrders, Map<Long, Integer> skipDeltas) {
+        if (skipDeltas.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, List<Long>> idsByDelta = skipDeltas.entrySet().stream()
+                .collect(Collectors.groupingBy(
+                        Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())
+                ));
+
+        int rowsUpdated = 0;
+        for (Map.Entry<Integer, List<Long>> group : idsByDelta.entrySet()) {
+            List<Long> ids = group.getValue();
+            for (int from = 0; from < ids.size(); from += BULK_UPDATE_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + BULK_UPDATE_CHUNK_SIZE, ids.size()));
+                rowsUpdated += orderRepository.incrementSkippedByLaterCount(chunk, group.getKey());
             }
         }
-        orderRepository.saveAll(remainingOrders);
+
+        applyFairnessSkips(remainingOrders, skipDeltas);
+        return rowsUpdated;
+    }
+
+    static void applyFairnessSkips(PriorityIndex remainingOrders, Map<Long, Integer> skipDeltas) {
+        skipDeltas.forEach((orderId, delta) ->
+                remainingOrders.get(orderId).ifPresent(order -> {
+                    order.setSkippedByLaterCount(order.getSkippedByLaterCount() + delta);
+                    remainingOrders.refresh(order);
+                })
+        );
     }
 
-    private Optional<Order> getEmergencyOrder(List<Order> waitingOrders) {
-        LocalDateTime now = LocalDateTime.now();
-        return waitingOrders.stream()
-                .filter(order -> Duration.between(order.getArrivalTime(), now).toMinutes() >= 10)
-                .findFirst();
+    static Optional<Order> getEmergencyOrder(PriorityIndex waitingOrders) {
+        return waitingOrders.firstWaitingAtLeast(EMERGENCY_WAIT_MINUTES);
     }
 }
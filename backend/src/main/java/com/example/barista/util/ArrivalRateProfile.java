@@ -0,0 +1,84 @@
+package com.example.barista.util;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Orders-per-hour arrival rate for every minute of the day, repeating daily: the intensity of the
+ * non-homogeneous Poisson process a {@link WorkloadGenerator} draws from. The rate is sampled once
+ * per minute and kept as a running total of expected arrivals, so lookups are O(1).
+ */
+public final class ArrivalRateProfile {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final int OPENS_AT_MINUTE = 6 * 60;
+    private static final int CLOSES_AT_MINUTE = 20 * 60;
+
+    // cumulative[m] is the expected number of arrivals from midnight to minute m
+    private final double[] cumulative = new double[MINUTES_PER_DAY + 1];
+
+    private ArrivalRateProfile(DoubleUnaryOperator ordersPerHourAtMinute) {
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            double rate = ordersPerHourAtMinute.applyAsDouble(minute + 0.5);
+            if (!(rate >= 0) || Double.isInfinite(rate)) {
+                throw new IllegalArgumentException("Arrival rate must be finite and non-negative, got "
+                        + rate + " at minute " + minute);
+            }
+            cumulative[minute + 1] = cumulative[minute] + rate / 60;
+        }
+        if (cumulative[MINUTES_PER_DAY] <= 0) {
+            throw new IllegalArgumentException("Arrival rate profile has no arrivals");
+        }
+    }
+
+    /**
+     * @param ordersPerHourAtMinute rate at a minute of the day (0 to 1440, sampled mid-minute)
+     */
+    public static ArrivalRateProfile of(DoubleUnaryOperator ordersPerHourAtMinute) {
+        return new ArrivalRateProfile(ordersPerHourAtMinute);
+    }
+
+    public static ArrivalRateProfile steady(double ordersPerHour) {
+        return new ArrivalRateProfile(minute -> ordersPerHour);
+    }
+
+    /**
+     * A shop open 06:00 to 20:00 with a sharp morning rush around 08:00, a lunch peak around
+     * 12:30 and a small afternoon bump, scaled so the average rate while open is
+     * {@code averageOrdersPerHour}.
+     */
+    public static ArrivalRateProfile morningRush(double averageOrdersPerHour) {
+        DoubleUnaryOperator shape = minute -> minute < OPENS_AT_MINUTE || minute >= CLOSES_AT_MINUTE
+                ? 0
+                : 1 + peak(minute, 8 * 60, 40, 3.0) + peak(minute, 12 * 60 + 30, 45, 1.5)
+                        + peak(minute, 15 * 60 + 30, 60, 0.5);
+        double shapeTotal = 0;
+        for (int minute = OPENS_AT_MINUTE; minute < CLOSES_AT_MINUTE; minute++) {
+            shapeTotal += shape.applyAsDouble(minute + 0.5);
+        }
+        double scale = averageOrdersPerHour * (CLOSES_AT_MINUTE - OPENS_AT_MINUTE) / shapeTotal;
+        return new ArrivalRateProfile(minute -> shape.applyAsDouble(minute) * scale);
+    }
+
+    public double ordersPerHour(int minuteOfDay) {
+        return perMinute(minuteOfDay) * 60;
+    }
+
+    double arrivalsPerDay() {
+        return cumulative[MINUTES_PER_DAY];
+    }
+
+    // expected arrivals from midnight to the start of minuteOfDay
+    double cumulative(int minuteOfDay) {
+        return cumulative[minuteOfDay];
+    }
+
+    double perMinute(int minuteOfDay) {
+        return cumulative[minuteOfDay + 1] - cumulative[minuteOfDay];
+    }
+
+    private static double peak(double minute, double center, double width, double height) {
+        double distance = (minute - center) / width;
+        return height * Math.exp(-distance * distance / 2);
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.barista.util;
+
+import java.util.Arrays;
+
+/**
+ * Single-barista queue simulation over parallel primitive arrays. Orders are served by highest
+ * priority, then earliest arrival, then lowest tie rank, whenever the barista is free; times are
+ * whole minutes from an arbitrary origin. The arrays grow on demand and are reused across
+ * {@link #reset()} calls, so a warmed-up kernel simulates without allocating.
+ */
+public final class BaristaQueueKernel {
+
+    private static final int INDEX_BITS = 24;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    private long[] arrivalMinutes;
+    private int[] priorities;
+    private int[] prepTimes;
+    private int[] tieRanks;
+
+    private long[] startMinutes;
+    private long[] completionMinutes;
+    private int[] servedOrder;
+
+    private long[] arrivalKeys;
+    private int[] heap;
+
+    private int size;
+
+    public BaristaQueueKernel(int capacity) {
+        allocate(Math.max(capacity, 16));
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int add(long arrivalMinute, int priority, int prepTime, int tieRank) {
+        if (size > INDEX_MASK) {
+            throw new IllegalStateException("Kernel holds at most " + (INDEX_MASK + 1) + " orders");
+        }
+        if (size == arrivalMinutes.length) {
+            grow();
+        }
+        int index = size++;
+        arrivalMinutes[index] = arrivalMinute;
+        priorities[index] = priority;
+        prepTimes[index] = prepTime;
+        tieRanks[index] = tieRank;
+        return index;
+    }
+
+    public void run() {
+        if (size == 0) {
+            return;
+        }
+
+        long origin = arrivalMinutes[0];
+        for (int index = 1; index < size; index++) {
+            origin = Math.min(origin, arrivalMinutes[index]);
+        }
+        for (int index = 0; index < size; index++) {
+            arrivalKeys[index] = ((arrivalMinutes[index] - origin) << INDEX_BITS) | index;
+        }
+        Arrays.sort(arrivalKeys, 0, size);
+
+        int heapSize = 0;
+        int admitted = 0;
+        int served = 0;
+        long currentMinute = origin;
+
+        while (admitted < size || heapSize > 0) {
+            while (admitted < size && arrivalOf(admitted) <= currentMinute) {
+                heapSize = push(heapSize, (int) (arrivalKeys[admitted] & INDEX_MASK));
+                admitted++;
+            }
+
+            if (heapSize == 0) {
+                currentMinute = arrivalOf(admitted);
+                continue;
+            }
+
+            int next = heap[0];
+            heapSize = pop(heapSize);
+
+            long startMinute = Math.max(currentMinute, arrivalMinutes[next]);
+            long completionMinute = startMinute + prepTimes[next];
+            startMinutes[next] = startMinute;
+            completionMinutes[next] = completionMinute;
+            servedOrder[served++] = next;
+            currentMinute = completionMinute;
+        }
+    }
+
+    public int servedAt(int position) {
+        return servedOrder[position];
+    }
+
+    public long arrivalMinute(int index) {
+        return arrivalMinutes[index];
+    }
+
+    public long startMinute(int index) {
+        return startMinutes[index];
+    }
+
+    public long completionMinute(int index) {
+        return completionMinutes[index];
+    }
+
+    public long waitingMinutes(int index) {
+        return startMinutes[index] - arrivalMinutes[index];
+    }
+
+    public long turnaroundMinutes(int index) {
+        return completionMinutes[index] - arrivalMinutes[index];
+    }
+
+    private long arrivalOf(int sortedPosition) {
+        return arrivalMinutes[(int) (arrivalKeys[sortedPosition] & INDEX_MASK)];
+    }
+
+    private boolean before(int left, int right) {
+        if (priorities[left] != priorities[right]) {
+            return priorities[left] > priorities[right];
+        }
+        if (arrivalMinutes[left] != arrivalMinutes[right]) {
+            return arrivalMinutes[left] < arrivalMinutes[right];
+        }
+        return tieRanks[left] < tieRanks[right];
+    }
+
+    private int push(int heapSize, int index) {
+        int position = heapSize;
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!before(index, heap[parent])) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = index;
+        return heapSize + 1;
+    }
+
+    private int pop(int heapSize) {
+        int last = heap[--heapSize];
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], last)) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = last;
+        return heapSize;
+    }
+
+    private void grow() {
+        int capacity = arrivalMinutes.length * 2;
+        arrivalMinutes = Arrays.copyOf(arrivalMinutes, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        prepTimes = Arrays.copyOf(prepTimes, capacity);
+        tieRanks = Arrays.copyOf(tieRanks, capacity);
+        startMinutes = new long[capacity];
+        completionMinutes = new long[capacity];
+        servedOrder = new int[capacity];
+        arrivalKeys = new long[capacity];
+        heap = new int[capacity];
+    }
+
+    private void allocate(int capacity) {
+        arrivalMinutes = new long[capacity];
+        priorities = new int[capacity];
+        prepTimes = new int[capacity];
+        tieRanks = new int[capacity];
+        startMinutes = new long[capacity];
+        completionMinutes = new long[capacity];
+        servedOrder = new int[capacity];
+        arrivalKeys = new long[capacity];
+        heap = new int[capacity];
+    }
+}
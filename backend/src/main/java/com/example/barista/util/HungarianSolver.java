@@ -0,0 +1,91 @@
+package com.example.barista.util;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-cost assignment of every row of a rectangular cost matrix to a distinct column
+ * (Hungarian algorithm with row/column potentials, O(rows^2 * columns)). Rows must not outnumber
+ * columns; callers with more rows than columns solve the transpose.
+ */
+public final class HungarianSolver {
+
+    private HungarianSolver() {
+    }
+
+    /**
+     * @return for each row, the index of the column it is assigned to
+     */
+    public static int[] solve(double[][] cost) {
+        int rows = cost.length;
+        if (rows == 0) {
+            return new int[0];
+        }
+        int columns = cost[0].length;
+        if (rows > columns) {
+            throw new IllegalArgumentException("Cost matrix has more rows (" + rows
+                    + ") than columns (" + columns + ")");
+        }
+
+        // 1-based, column 0 is the virtual start of each augmenting path
+        double[] rowPotential = new double[rows + 1];
+        double[] columnPotential = new double[columns + 1];
+        int[] rowOfColumn = new int[columns + 1];
+        int[] previousColumn = new int[columns + 1];
+        double[] slack = new double[columns + 1];
+        boolean[] visited = new boolean[columns + 1];
+
+        for (int row = 1; row <= rows; row++) {
+            rowOfColumn[0] = row;
+            int column = 0;
+            Arrays.fill(slack, Double.POSITIVE_INFINITY);
+            Arrays.fill(visited, false);
+
+            do {
+                visited[column] = true;
+                int pathRow = rowOfColumn[column];
+                double[] rowCost = cost[pathRow - 1];
+                double delta = Double.POSITIVE_INFINITY;
+                int nextColumn = 0;
+
+                for (int candidate = 1; candidate <= columns; candidate++) {
+                    if (visited[candidate]) {
+                        continue;
+                    }
+                    double reduced = rowCost[candidate - 1] - rowPotential[pathRow] - columnPotential[candidate];
+                    if (reduced < slack[candidate]) {
+                        slack[candidate] = reduced;
+                        previousColumn[candidate] = column;
+                    }
+                    if (slack[candidate] < delta) {
+                        delta = slack[candidate];
+                        nextColumn = candidate;
+                    }
+                }
+
+                for (int candidate = 0; candidate <= columns; candidate++) {
+                    if (visited[candidate]) {
+                        rowPotential[rowOfColumn[candidate]] += delta;
+                        columnPotential[candidate] -= delta;
+                    } else {
+                        slack[candidate] -= delta;
+                    }
+                }
+                column = nextColumn;
+            } while (rowOfColumn[column] != 0);
+
+            do {
+                int previous = previousColumn[column];
+                rowOfColumn[column] = rowOfColumn[previous];
+                column = previous;
+            } while (column != 0);
+        }
+
+        int[] assignment = new int[rows];
+        for (int column = 1; column <= columns; column++) {
+            if (rowOfColumn[column] != 0) {
+                assignment[rowOfColumn[column] - 1] = column - 1;
+            }
+        }
+        return assignment;
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.barista.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of opaque records in memory-mapped segment files. {@link #append}
+ * returns once the record is on disk; concurrent appenders share one {@code force} (group
+ * commit), the first waiter flushing everything written so far for the rest. Consumers
+ * {@link #checkpoint} the last sequence they have applied, and segments wholly below it are
+ * deleted. Opening a journal recovers the records past the checkpoint, up to the first torn or
+ * corrupt one, and starts a fresh segment after them.
+ */
+public final class IntakeJournal implements Closeable {
+
+    // length, crc32 of sequence + payload, sequence
+    private static final int HEADER_BYTES = 4 + 4 + 8;
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final List<Entry> recovered;
+    // first sequence -> segment file, oldest first; the last one is current
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+
+    private Segment current;
+    private long nextSequence;
+    private long lastWritten;
+    private long durable;
+    private long checkpointed;
+    private boolean flushing;
+    private boolean closed;
+
+    private IntakeJournal(Path directory, int segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+
+        checkpointed = readCheckpoint();
+        recovered = new ArrayList<>();
+        long last = checkpointed;
+        for (Path path : listSegments()) {
+            long first = firstSequence(path);
+            segments.put(first, path);
+            last = Math.max(last, scan(path, first, recovered));
+        }
+
+        nextSequence = last + 1;
+        lastWritten = last;
+        durable = last;
+        current = openSegment(nextSequence);
+        pruneSegments();
+    }
+
+    public static IntakeJournal open(Path directory, int segmentBytes) throws IOException {
+        if (segmentBytes <= HEADER_BYTES) {
+            throw new IllegalArgumentException("segmentBytes must be larger than " + HEADER_BYTES);
+        }
+        return new IntakeJournal(directory, segmentBytes);
+    }
+
+    /**
+     * Records found past the checkpoint when the journal was opened, in sequence order.
+     */
+    public List<Entry> recovered() {
+        return List.copyOf(recovered);
+    }
+
+    /**
+     * Appends {@code payload} and waits until it is durable.
+     *
+     * @return the record's sequence, for {@link #checkpoint}
+     */
+    public long append(byte[] payload) throws IOException {
+        if (payload.length > segmentBytes - HEADER_BYTES) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit a "
+                    + segmentBytes + " byte segment");
+        }
+        long sequence;
+        synchronized (this) {
+            ensureOpen();
+            if (current.position + HEADER_BYTES + payload.length > segmentBytes) {
+                rollSegment();
+            }
+            sequence = nextSequence++;
+            current.write(sequence, payload);
+            lastWritten = sequence;
+        }
+        awaitDurable(sequence);
+        return sequence;
+    }
+
+    /**
+     * Marks every record up to {@code sequence} as applied and deletes the segments it covers.
+     */
+    public void checkpoint(long sequence) throws IOException {
+        synchronized (this) {
+            ensureOpen();
+            if (sequence <= checkpointed) {
+                return;
+            }
+            Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+                channel.force(true);
+            }
+            Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            checkpointed = sequence;
+            pruneSegments();
+        }
+    }
+
+    public synchronized long lastCheckpoint() {
+        return checkpointed;
+    }
+
+    /**
+     * Syncs what appenders are still waiting on, then closes the journal.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        current.force(current.forced, current.position);
+        current.forced = current.position;
+        durable = lastWritten;
+        closed = true;
+        notifyAll();
+        current.close();
+    }
+
+    // Leader/follower group commit: one waiter forces everything written so far, the rest wait on it.
+    private void awaitDurable(long sequence) throws IOException {
+        while (true) {
+            Segment segment;
+            long target;
+            int from;
+            int to;
+            synchronized (this) {
+                while (durable < sequence && flushing) {
+                    try {
+                        wait();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted waiting for the journal to sync");
+                    }
+                }
+                if (durable >= sequence) {
+                    return;
+                }
+                ensureOpen();
+                flushing = true;
+                segment = current;
+                target = lastWritten;
+                from = segment.forced;
+                to = segment.position;
+            }
+
+            boolean forced = false;
+            try {
+                segment.force(from, to);
+                forced = true;
+            } finally {
+                synchronized (this) {
+                    if (forced) {
+                        segment.forced = Math.max(segment.forced, to);
+                        durable = Math.max(durable, target);
+                    }
+                    flushing = false;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    // Called with the monitor held; the old segment is made durable before anything lands in the new one.
+    private void rollSegment() throws IOException {
+        current.force(current.forced, current.position);
+        current.forced = current.position;
+        durable = lastWritten;
+        current.close();
+        current = openSegment(nextSequence);
+    }
+
+    private Segment openSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("intake-%020d.log", firstSequence));
+        // a segment named for the next sequence can only hold a torn first record
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        segments.put(firstSequence, path);
+        return new Segment(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+    }
+
+    // A segment can go once the next one starts at or below checkpoint + 1; the current one stays.
+    private void pruneSegments() {
+        Iterator<Map.Entry<Long, Path>> oldest = segments.entrySet().iterator();
+        while (oldest.hasNext()) {
+            Map.Entry<Long, Path> segment = oldest.next();
+            Long nextFirst = segments.higherKey(segment.getKey());
+            if (nextFirst == null || nextFirst - 1 > checkpointed) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(segment.getValue());
+                oldest.remove();
+            } catch (IOException ex) {
+                // still mapped somewhere (Windows); the next checkpoint tries again
+                return;
+            }
+        }
+    }
+
+    private long scan(Path path, long firstSequence, List<Entry> into) throws IOException {
+        long last = firstSequence - 1;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= HEADER_BYTES) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                long sequence = buffer.getLong();
+                if (length <= 0 || length > buffer.remaining() || sequence != last + 1) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                crc.reset();
+                crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                last = sequence;
+                if (sequence > checkpointed) {
+                    into.add(new Entry(sequence, payload));
+                }
+            }
+        }
+        return last;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().matches("intake-\\d{20}\\.log"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length != Long.BYTES) {
+            throw new IOException("Corrupt journal checkpoint " + path);
+        }
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+
+    private static long firstSequence(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring("intake-".length(), name.length() - ".log".length()));
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Journal " + directory + " is closed");
+        }
+    }
+
+    public static final class Entry {
+        private final long sequence;
+        private final byte[] payload;
+
+        Entry(long sequence, byte[] payload) {
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+
+    private static final class Segment {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final CRC32 crc = new CRC32();
+        private int position;
+        private int forced;
+
+        Segment(FileChannel channel, MappedByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        // The length goes in last, so a reader never sees a record whose header is ahead of its body.
+        void write(long sequence, byte[] payload) {
+            crc.reset();
+            crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+            crc.update(payload);
+            buffer.putInt(position + 4, (int) crc.getValue());
+            buffer.putLong(position + 8, sequence);
+            buffer.put(position + HEADER_BYTES, payload);
+            buffer.putInt(position, payload.length);
+            position += HEADER_BYTES + payload.length;
+        }
+
+        void force(int from, int to) {
+            if (to > from) {
+                buffer.force(from, to - from);
+            }
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
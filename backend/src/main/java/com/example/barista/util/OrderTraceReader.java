@@ -0,0 +1,229 @@
+package com.example.barista.util;
+
+import com.example.barista.dto.CreateOrderRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams a recorded order trace, one {@link Arrival} per line, without holding the file. CSV
+ * traces need a header naming {@code timestamp, drinkType, customerName, customerPhone,
+ * loyaltyCustomer, rushOrder} (any order, the booleans optional; double quotes escape commas);
+ * NDJSON lines are {@link CreateOrderRequest} objects plus a {@code timestamp}. Timestamps are
+ * ISO local or offset date-times, or epoch milliseconds. Blank lines are skipped; malformed ones
+ * throw {@link IllegalArgumentException} with the line number.
+ */
+public class OrderTraceReader implements Iterator<OrderTraceReader.Arrival>, Closeable {
+
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        public static Format of(String fileName) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            if (lower.endsWith(".csv")) {
+                return CSV;
+            }
+            if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("Cannot tell the trace format of " + fileName
+                    + ", expected .csv, .ndjson or .jsonl");
+        }
+    }
+
+    public static class Arrival {
+        private final LocalDateTime timestamp;
+        private final CreateOrderRequest request;
+
+        Arrival(LocalDateTime timestamp, CreateOrderRequest request) {
+            this.timestamp = timestamp;
+            this.request = request;
+        }
+
+        public LocalDateTime getTimestamp() {
+            return timestamp;
+        }
+
+        public CreateOrderRequest getRequest() {
+            return request;
+        }
+    }
+
+    private static final String TIMESTAMP = "timestamp";
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> csvColumns;
+    private int lineNumber;
+    private Arrival next;
+
+    public OrderTraceReader(BufferedReader reader, Format format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Arrival next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Arrival arrival = next;
+        next = null;
+        return arrival;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Arrival readNext() {
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.NDJSON) {
+                return parseJson(line);
+            }
+            if (csvColumns == null) {
+                csvColumns = parseHeader(line);
+                continue;
+            }
+            return parseCsv(line);
+        }
+        return null;
+    }
+
+    private String readLine() {
+        try {
+            String line = reader.readLine();
+            lineNumber++;
+            return line;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Arrival parseJson(String line) {
+        try {
+            ObjectNode node = (ObjectNode) objectMapper.readTree(line);
+            if (!node.hasNonNull(TIMESTAMP)) {
+                throw invalid("missing " + TIMESTAMP);
+            }
+            LocalDateTime timestamp = parseTimestamp(node.remove(TIMESTAMP).asText());
+            return new Arrival(timestamp, objectMapper.treeToValue(node, CreateOrderRequest.class));
+        } catch (JsonProcessingException | ClassCastException ex) {
+            throw invalid(ex.getMessage());
+        }
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int index = 0; index < names.size(); index++) {
+            columns.put(names.get(index).trim(), index);
+        }
+        for (String required : List.of(TIMESTAMP, "drinkType", "customerName", "customerPhone")) {
+            if (!columns.containsKey(required)) {
+                throw invalid("header has no " + required + " column");
+            }
+        }
+        return columns;
+    }
+
+    private Arrival parseCsv(String line) {
+        List<String> values = splitCsv(line);
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setDrinkType(column(values, "drinkType"));
+        request.setCustomerName(column(values, "customerName"));
+        request.setCustomerPhone(column(values, "customerPhone"));
+        request.setLoyaltyCustomer(Boolean.parseBoolean(column(values, "loyaltyCustomer")));
+        request.setRushOrder(Boolean.parseBoolean(column(values, "rushOrder")));
+        return new Arrival(parseTimestamp(column(values, TIMESTAMP)), request);
+    }
+
+    private String column(List<String> values, String name) {
+        Integer index = csvColumns.get(name);
+        if (index == null) {
+            return null;
+        }
+        if (index >= values.size()) {
+            throw invalid("expected " + csvColumns.size() + " columns, got " + values.size());
+        }
+        return values.get(index).trim();
+    }
+
+    private LocalDateTime parseTimestamp(String value) {
+        try {
+            if (!value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(value)), ZoneId.systemDefault());
+            }
+            if (value.endsWith("Z") || value.matches(".*[+-]\\d{2}:\\d{2}$")) {
+                return OffsetDateTime.parse(value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            }
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            throw invalid("bad timestamp '" + value + "'");
+        }
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int index = 0; index < line.length(); index++) {
+            char c = line.charAt(index);
+            if (quoted) {
+                if (c == '"' && index + 1 < line.length() && line.charAt(index + 1) == '"') {
+                    current.append('"');
+                    index++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private IllegalArgumentException invalid(String reason) {
+        return new IllegalArgumentException("Trace line " + lineNumber + ": " + reason);
+    }
+}
@@ -6,21 +6,40 @@ import java.time.LocalDateTime;
 
 public class PriorityCalculator {
 
+    // waitScore is constant from here on: wait capped at 40, urgency and emergency fixed from 8 minutes
+    public static final long WAIT_SCORE_SATURATION_MINUTES = 10;
+
     public static double calculate(Order order) {
+        return calculate(order, LocalDateTime.now());
+    }
+
+    public static double calculate(Order order, LocalDateTime now) {
+        return staticScore(order) + waitScore(waitMinutes(order.getArrivalTime(), now));
+    }
+
+    public static long waitMinutes(LocalDateTime arrivalTime, LocalDateTime now) {
+        return Duration.between(arrivalTime, now).toMinutes();
+    }
+
+    public static double staticScore(Order order) {
+        return staticScore(order.getPrepTime(), order.isLoyaltyCustomer(), order.isRushOrder(),
+                order.getSkippedByLaterCount());
+    }
 
-        long waitMinutes = Duration.between(
-                order.getArrivalTime(),
-                LocalDateTime.now()
-        ).toMinutes();
+    public static double staticScore(int prepTime, boolean loyaltyCustomer, boolean rushOrder, int skippedByLaterCount) {
+        double complexityScore = (6 - prepTime) * 4;
+        double loyaltyScore = loyaltyCustomer ? 10 : 0;
+        double fairnessPenalty = skippedByLaterCount > 3 ? 15 : 0;
+        double rushScore = rushOrder ? 5 : 0;
+
+        return complexityScore + loyaltyScore + rushScore - fairnessPenalty;
+    }
 
+    public static double waitScore(long waitMinutes) {
         double waitScore = Math.min(waitMinutes * 4, 40);
-        double complexityScore = (6 - order.getPrepTime()) * 4;
-        double loyaltyScore = order.isLoyaltyCustomer() ? 10 : 0;
         double urgencyScore = waitMinutes >= 8 ? 25 : waitMinutes * 3;
         double emergencyBoost = waitMinutes >= 8 ? 50 : 0;
-        double fairnessPenalty = order.getSkippedByLaterCount() > 3 ? 15 : 0;
-        double rushScore = order.isRushOrder() ? 5 : 0;
 
-        return waitScore + complexityScore + loyaltyScore + urgencyScore + emergencyBoost + rushScore - fairnessPenalty;
+        return waitScore + urgencyScore + emergencyBoost;
     }
 }
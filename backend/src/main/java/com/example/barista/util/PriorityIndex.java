@@ -0,0 +1,316 @@
+package com.example.barista.util;
+
+import com.example.barista.model.Order;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Waiting orders ranked exactly as {@link PriorityCalculator#calculate(Order, LocalDateTime)}
+ * followed by a stable sort of the arrival-ordered queue would rank them, without rescoring.
+ *
+ * <p>A score is split into the static part (complexity, loyalty, rush, fairness) and the wait
+ * part, which only changes when an order crosses a whole minute and stops changing at
+ * {@link PriorityCalculator#WAIT_SCORE_SATURATION_MINUTES}. Orders are bucketed by prep class
+ * and wait minute, each bucket ordered by static score, so the best order is the best of a
+ * handful of bucket heads. {@link #advanceTo(LocalDateTime)} moves only the orders whose next
+ * minute boundary has passed. Not thread-safe.
+ */
+public class PriorityIndex {
+
+    public enum PrepClass {
+        QUICK,
+        STANDARD,
+        COMPLEX;
+
+        public static final int QUICK_MAX_PREP_MINUTES = 2;
+        public static final int COMPLEX_MIN_PREP_MINUTES = 4;
+
+        public static PrepClass of(int prepTime) {
+            if (prepTime <= QUICK_MAX_PREP_MINUTES) {
+                return QUICK;
+            }
+            return prepTime >= COMPLEX_MIN_PREP_MINUTES ? COMPLEX : STANDARD;
+        }
+    }
+
+    private static final Comparator<Entry> ARRIVAL_ORDER = Comparator
+            .comparing((Entry entry) -> entry.order.getArrivalTime())
+            .thenComparingLong(entry -> entry.sequence);
+
+    private static final Comparator<Entry> BUCKET_ORDER = Comparator
+            .comparingDouble((Entry entry) -> entry.staticScore).reversed()
+            .thenComparing(ARRIVAL_ORDER);
+
+    private static final Comparator<Entry> PRIORITY_ORDER = Comparator
+            .comparingDouble((Entry entry) -> score(entry)).reversed()
+            .thenComparing(ARRIVAL_ORDER);
+
+    private static final Comparator<Entry> BOUNDARY_ORDER = Comparator
+            .comparing((Entry entry) -> entry.nextBoundary)
+            .thenComparingLong(entry -> entry.sequence);
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<PrepClass, NavigableMap<Long, TreeSet<Entry>>> buckets = new EnumMap<>(PrepClass.class);
+    private final TreeSet<Entry> byArrival = new TreeSet<>(ARRIVAL_ORDER);
+    private final TreeSet<Entry> boundaries = new TreeSet<>(BOUNDARY_ORDER);
+
+    private LocalDateTime now;
+    private long nextSequence;
+
+    public PriorityIndex(LocalDateTime now) {
+        this.now = now;
+        for (PrepClass prepClass : PrepClass.values()) {
+            buckets.put(prepClass, new TreeMap<>());
+        }
+    }
+
+    public static PriorityIndex of(Collection<Order> orders, LocalDateTime now) {
+        PriorityIndex index = new PriorityIndex(now);
+        orders.forEach(index::add);
+        return index;
+    }
+
+    public LocalDateTime getNow() {
+        return now;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public void add(Order order) {
+        remove(order.getId());
+        Entry entry = new Entry(order, nextSequence++);
+        entries.put(order.getId(), entry);
+        byArrival.add(entry);
+        link(entry);
+    }
+
+    public Optional<Order> remove(Long orderId) {
+        Entry entry = entries.remove(orderId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        unlink(entry);
+        byArrival.remove(entry);
+        return Optional.of(entry.order);
+    }
+
+    public Optional<Order> get(Long orderId) {
+        Entry entry = entries.get(orderId);
+        return entry == null ? Optional.empty() : Optional.of(entry.order);
+    }
+
+    /**
+     * Re-ranks an order after its static inputs (prep time, loyalty, rush, skips) changed.
+     */
+    public void refresh(Order order) {
+        Entry entry = entries.get(order.getId());
+        if (entry == null) {
+            return;
+        }
+        unlink(entry);
+        link(entry);
+    }
+
+    public void advanceTo(LocalDateTime time) {
+        if (time.isBefore(now)) {
+            now = time;
+            List<Entry> all = new ArrayList<>(entries.values());
+            all.forEach(this::unlink);
+            all.forEach(this::link);
+            return;
+        }
+
+        now = time;
+        while (!boundaries.isEmpty() && !boundaries.first().nextBoundary.isAfter(now)) {
+            Entry entry = boundaries.first();
+            unlink(entry);
+            link(entry);
+        }
+    }
+
+    public double score(Order order) {
+        Entry entry = entries.get(order.getId());
+        return entry == null ? PriorityCalculator.calculate(order, now) : score(entry);
+    }
+
+    public Optional<Order> first() {
+        return best(PrepClass.values(), Long.MIN_VALUE);
+    }
+
+    public Optional<Order> first(PrepClass prepClass) {
+        return best(new PrepClass[]{prepClass}, Long.MIN_VALUE);
+    }
+
+    public Optional<Order> firstWaitingAtLeast(long waitMinutes) {
+        checkTrackedWait(waitMinutes);
+        return best(PrepClass.values(), waitMinutes);
+    }
+
+    public int countWaitingAtLeast(long waitMinutes) {
+        checkTrackedWait(waitMinutes);
+        int count = 0;
+        for (NavigableMap<Long, TreeSet<Entry>> classBuckets : buckets.values()) {
+            for (TreeSet<Entry> bucket : classBuckets.tailMap(waitMinutes, true).values()) {
+                count += bucket.size();
+            }
+        }
+        return count;
+    }
+
+    public void forEachArrivedBefore(LocalDateTime arrivalTime, Consumer<Order> action) {
+        Order probe = new Order();
+        probe.setArrivalTime(arrivalTime);
+        byArrival.headSet(new Entry(probe, Long.MIN_VALUE), false)
+                .forEach(entry -> action.accept(entry.order));
+    }
+
+    public List<Order> ordersByArrival() {
+        List<Order> orders = new ArrayList<>(byArrival.size());
+        byArrival.forEach(entry -> orders.add(entry.order));
+        return orders;
+    }
+
+    public List<Order> ordersByPriority() {
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort(PRIORITY_ORDER);
+        List<Order> orders = new ArrayList<>(sorted.size());
+        sorted.forEach(entry -> orders.add(entry.order));
+        return orders;
+    }
+
+    /**
+     * The best {@code limit} orders that have waited at least {@code minWaitMinutes}, in priority
+     * order; a merge of the bucket heads, so the cost grows with {@code limit}, not the queue.
+     */
+    public List<Order> topByPriority(int limit, long minWaitMinutes) {
+        checkTrackedWait(minWaitMinutes);
+        PriorityQueue<BucketCursor> heads = new PriorityQueue<>(
+                (left, right) -> PRIORITY_ORDER.compare(left.head, right.head)
+        );
+        for (NavigableMap<Long, TreeSet<Entry>> classBuckets : buckets.values()) {
+            for (TreeSet<Entry> bucket : classBuckets.tailMap(minWaitMinutes, true).values()) {
+                Iterator<Entry> remaining = bucket.iterator();
+                heads.add(new BucketCursor(remaining.next(), remaining));
+            }
+        }
+
+        List<Order> orders = new ArrayList<>(Math.min(limit, entries.size()));
+        while (orders.size() < limit && !heads.isEmpty()) {
+            BucketCursor cursor = heads.poll();
+            orders.add(cursor.head.order);
+            if (cursor.remaining.hasNext()) {
+                cursor.head = cursor.remaining.next();
+                heads.add(cursor);
+            }
+        }
+        return orders;
+    }
+
+    private static void checkTrackedWait(long waitMinutes) {
+        if (waitMinutes > PriorityCalculator.WAIT_SCORE_SATURATION_MINUTES) {
+            throw new IllegalArgumentException("Wait buckets are not tracked beyond "
+                    + PriorityCalculator.WAIT_SCORE_SATURATION_MINUTES + " minutes");
+        }
+    }
+
+    private Optional<Order> best(PrepClass[] prepClasses, long minBucket) {
+        Entry best = null;
+        for (PrepClass prepClass : prepClasses) {
+            for (TreeSet<Entry> bucket : buckets.get(prepClass).tailMap(minBucket, true).values()) {
+                Entry head = bucket.first();
+                if (best == null || PRIORITY_ORDER.compare(head, best) < 0) {
+                    best = head;
+                }
+            }
+        }
+        return best == null ? Optional.empty() : Optional.of(best.order);
+    }
+
+    private void link(Entry entry) {
+        Order order = entry.order;
+        long waitMinutes = PriorityCalculator.waitMinutes(order.getArrivalTime(), now);
+
+        entry.prepClass = PrepClass.of(order.getPrepTime());
+        entry.staticScore = PriorityCalculator.staticScore(order);
+        entry.bucket = Math.min(waitMinutes, PriorityCalculator.WAIT_SCORE_SATURATION_MINUTES);
+        entry.nextBoundary = nextBoundary(order.getArrivalTime(), waitMinutes);
+
+        buckets.get(entry.prepClass)
+                .computeIfAbsent(entry.bucket, key -> new TreeSet<>(BUCKET_ORDER))
+                .add(entry);
+        if (entry.nextBoundary != null) {
+            boundaries.add(entry);
+        }
+    }
+
+    private void unlink(Entry entry) {
+        NavigableMap<Long, TreeSet<Entry>> classBuckets = buckets.get(entry.prepClass);
+        TreeSet<Entry> bucket = classBuckets.get(entry.bucket);
+        bucket.remove(entry);
+        if (bucket.isEmpty()) {
+            classBuckets.remove(entry.bucket);
+        }
+        if (entry.nextBoundary != null) {
+            boundaries.remove(entry);
+        }
+    }
+
+    // First instant at which Duration.between(arrival, t).toMinutes() exceeds waitMinutes;
+    // toMinutes() truncates whole seconds towards zero, hence the offset before arrival.
+    private static LocalDateTime nextBoundary(LocalDateTime arrivalTime, long waitMinutes) {
+        if (waitMinutes >= PriorityCalculator.WAIT_SCORE_SATURATION_MINUTES) {
+            return null;
+        }
+        if (waitMinutes >= 0) {
+            return arrivalTime.plusMinutes(waitMinutes + 1);
+        }
+        return arrivalTime.plusSeconds(60 * (waitMinutes + 1) - 59);
+    }
+
+    private static double score(Entry entry) {
+        return entry.staticScore + PriorityCalculator.waitScore(entry.bucket);
+    }
+
+    private static class BucketCursor {
+        private Entry head;
+        private final Iterator<Entry> remaining;
+
+        BucketCursor(Entry head, Iterator<Entry> remaining) {
+            this.head = head;
+            this.remaining = remaining;
+        }
+    }
+
+    private static class Entry {
+        private final Order order;
+        private final long sequence;
+        private PrepClass prepClass;
+        private double staticScore;
+        private long bucket;
+        private LocalDateTime nextBoundary;
+
+        Entry(Order order, long sequence) {
+            this.order = order;
+            this.sequence = sequence;
+        }
+    }
+}
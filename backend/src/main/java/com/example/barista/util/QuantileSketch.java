@@ -0,0 +1,217 @@
+package com.example.barista.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch over non-negative values (DDSketch): values fall into logarithmic
+ * bins, so every quantile is within 1% of the true value and memory grows with the log of the
+ * value range, not the count. Two sketches merge exactly by adding bin counts. Not thread-safe.
+ */
+public final class QuantileSketch {
+
+    private static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    // smaller values are counted as zero
+    private static final double MIN_INDEXED_VALUE = 1e-6;
+    private static final byte FORMAT_VERSION = 1;
+
+    // counts[i] is the bin with index offset + i
+    private long[] counts = new long[0];
+    private int offset;
+    private long zeroCount;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        if (!(value >= 0) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Sketch values must be finite and non-negative, got " + value);
+        }
+        if (value < MIN_INDEXED_VALUE) {
+            zeroCount++;
+        } else {
+            int index = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+            ensureBin(index);
+            counts[index - offset]++;
+        }
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (other.counts.length > 0) {
+            ensureBin(other.offset);
+            ensureBin(other.offset + other.counts.length - 1);
+            for (int bin = 0; bin < other.counts.length; bin++) {
+                counts[other.offset + bin - offset] += other.counts[bin];
+            }
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * The value at {@code quantile} (0 to 1), within 1% and clamped to the exact min and max;
+     * 0 when the sketch is empty.
+     */
+    public double quantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1, got " + quantile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.floor(quantile * (count - 1));
+        if (rank < zeroCount) {
+            return min;
+        }
+        long seen = zeroCount;
+        for (int bin = 0; bin < counts.length; bin++) {
+            seen += counts[bin];
+            if (seen > rank) {
+                double estimate = 2 * Math.pow(GAMMA, offset + bin) / (GAMMA + 1);
+                return Math.max(min, Math.min(max, estimate));
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    public double getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    public QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch();
+        copy.merge(this);
+        return copy;
+    }
+
+    public byte[] toBytes() {
+        int first = 0;
+        int last = counts.length - 1;
+        while (first <= last && counts[first] == 0) {
+            first++;
+        }
+        while (last >= first && counts[last] == 0) {
+            last--;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 2 * Math.max(0, last - first + 1));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            writeVarLong(out, count);
+            writeVarLong(out, zeroCount);
+            out.writeDouble(sum);
+            out.writeDouble(getMin());
+            out.writeDouble(getMax());
+            out.writeInt(offset + first);
+            writeVarLong(out, Math.max(0, last - first + 1));
+            for (int bin = first; bin <= last; bin++) {
+                writeVarLong(out, counts[bin]);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static QuantileSketch fromBytes(byte[] encoded) {
+        QuantileSketch sketch = new QuantileSketch();
+        if (encoded == null || encoded.length == 0) {
+            return sketch;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unknown sketch format " + version);
+            }
+            sketch.count = readVarLong(in);
+            sketch.zeroCount = readVarLong(in);
+            sketch.sum = in.readDouble();
+            double min = in.readDouble();
+            double max = in.readDouble();
+            if (sketch.count > 0) {
+                sketch.min = min;
+                sketch.max = max;
+            }
+            sketch.offset = in.readInt();
+            sketch.counts = new long[(int) readVarLong(in)];
+            for (int bin = 0; bin < sketch.counts.length; bin++) {
+                sketch.counts[bin] = readVarLong(in);
+            }
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Truncated sketch", ex);
+        }
+        return sketch;
+    }
+
+    private void ensureBin(int index) {
+        if (counts.length == 0) {
+            counts = new long[16];
+            offset = index - 8;
+            return;
+        }
+        if (index < offset) {
+            int grow = Math.max(offset - index, counts.length / 2);
+            long[] grown = new long[counts.length + grow];
+            System.arraycopy(counts, 0, grown, grow, counts.length);
+            counts = grown;
+            offset -= grow;
+        } else if (index >= offset + counts.length) {
+            int needed = index - offset + 1;
+            counts = Arrays.copyOf(counts, Math.max(needed, counts.length + counts.length / 2));
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte next = in.readByte();
+            value |= (long) (next & 0x7F) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed sketch count");
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.barista.util;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded arrival times of a non-homogeneous Poisson process with an {@link ArrivalRateProfile},
+ * generated lazily and already in time order. Each arrival is a point on the expected-arrivals
+ * axis (unit exponential gaps for an open-ended process, sorted uniforms for a fixed count in a
+ * window) mapped back to a time by walking the profile forward, so the state is a handful of
+ * numbers however many arrivals are drawn, and a seed gives the same times on any thread.
+ */
+public final class WorkloadGenerator implements Iterator<LocalDateTime> {
+
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+
+    private final ArrivalRateProfile profile;
+    private final SplittableRandom random;
+    private final LocalDateTime firstMidnight;
+    private final long count;
+
+    // fixed-count windows: expected arrivals from firstMidnight to the window start, and in it
+    private final boolean fixedCount;
+    private final double windowStart;
+    private final double windowArrivals;
+    private double uniform;
+
+    // open-ended: expected arrivals from firstMidnight to the last arrival
+    private double position;
+
+    private long produced;
+    private long day;
+    private int minute;
+
+    private WorkloadGenerator(ArrivalRateProfile profile, LocalDateTime start, Duration window, long count,
+                              long seed) {
+        this.profile = profile;
+        this.random = new SplittableRandom(seed);
+        this.firstMidnight = start.toLocalDate().atStartOfDay();
+        this.count = count;
+        this.minute = (int) (minutesSinceMidnight(start));
+        this.windowStart = expectedArrivalsUntil(start);
+        this.position = windowStart;
+        this.fixedCount = window != null;
+        this.windowArrivals = fixedCount ? expectedArrivalsUntil(start.plus(window)) - windowStart : 0;
+        if (fixedCount && count > 0 && windowArrivals <= 0) {
+            throw new IllegalArgumentException("The rate profile expects no arrivals between " + start
+                    + " and " + start.plus(window));
+        }
+    }
+
+    /**
+     * Open-ended arrivals from {@code start}; bound them with {@link #limit}.
+     */
+    public static WorkloadGenerator poisson(ArrivalRateProfile profile, LocalDateTime start, long seed) {
+        return new WorkloadGenerator(profile, start, null, Long.MAX_VALUE, seed);
+    }
+
+    /**
+     * Exactly {@code count} arrivals in {@code [start, start + window)}, distributed as a Poisson
+     * process with this profile conditioned on that count.
+     */
+    public static WorkloadGenerator fixedCount(ArrivalRateProfile profile, LocalDateTime start, Duration window,
+                                               int count, long seed) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        return new WorkloadGenerator(profile, start, window, count, seed);
+    }
+
+    public Iterator<LocalDateTime> limit(long arrivals) {
+        return new Iterator<>() {
+            private long remaining = arrivals;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0 && WorkloadGenerator.this.hasNext();
+            }
+
+            @Override
+            public LocalDateTime next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+                return WorkloadGenerator.this.next();
+            }
+        };
+    }
+
+    @Override
+    public boolean hasNext() {
+        return produced < count;
+    }
+
+    @Override
+    public LocalDateTime next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        // 1 - nextDouble() is in (0, 1], so neither log nor pow sees 0
+        double draw = 1 - random.nextDouble();
+        double target;
+        if (fixedCount) {
+            // the next of (count - produced) sorted uniforms above the last one
+            uniform = 1 - (1 - uniform) * Math.pow(draw, 1.0 / (count - produced));
+            target = windowStart + uniform * windowArrivals;
+        } else {
+            position -= Math.log(draw);
+            target = position;
+        }
+        produced++;
+        return timeOf(target);
+    }
+
+    // Walks the cursor forward to the minute holding target; arrivals only move forward.
+    private LocalDateTime timeOf(double target) {
+        double perDay = profile.arrivalsPerDay();
+        if (target - day * perDay >= perDay) {
+            day = (long) Math.floor(target / perDay);
+            minute = 0;
+        }
+        while (profile.perMinute(minute) == 0 || target > day * perDay + profile.cumulative(minute + 1)) {
+            if (++minute == ArrivalRateProfile.MINUTES_PER_DAY) {
+                minute = 0;
+                day++;
+            }
+        }
+        double intoMinute = (target - day * perDay - profile.cumulative(minute)) / profile.perMinute(minute);
+        long nanos = (long) (Math.min(Math.max(intoMinute, 0), 1) * (NANOS_PER_MINUTE - 1));
+        return firstMidnight.plusDays(day).plusMinutes(minute).plusNanos(nanos);
+    }
+
+    private double expectedArrivalsUntil(LocalDateTime time) {
+        double minutes = minutesSinceMidnight(time);
+        long days = (long) Math.floor(minutes / ArrivalRateProfile.MINUTES_PER_DAY);
+        double minuteOfDay = minutes - days * ArrivalRateProfile.MINUTES_PER_DAY;
+        int wholeMinute = (int) minuteOfDay;
+        return days * profile.arrivalsPerDay() + profile.cumulative(wholeMinute)
+                + (minuteOfDay - wholeMinute) * profile.perMinute(wholeMinute);
+    }
+
+    private double minutesSinceMidnight(LocalDateTime time) {
+        return Duration.between(firstMidnight, time).toNanos() / (double) NANOS_PER_MINUTE;
+    }
+}
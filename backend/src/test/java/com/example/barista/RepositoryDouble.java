@@ -0,0 +1,69 @@
+package com.example.barista;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * A repository interface answered from memory, so tests and benchmarks can drive the real services
+ * without a database. Every answered call counts as one round trip and parks for {@code roundTripMicros},
+ * as a statement would; a call with no answer fails, so a new statement on a measured path shows
+ * up instead of going uncounted.
+ */
+public final class RepositoryDouble<R> {
+
+    private final Class<R> type;
+    private final long roundTripNanos;
+    private final Map<String, Function<Object[], Object>> answers = new ConcurrentHashMap<>();
+    private final AtomicLong roundTrips = new AtomicLong();
+
+    private RepositoryDouble(Class<R> type, int roundTripMicros) {
+        this.type = type;
+        this.roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+    }
+
+    public static <R> RepositoryDouble<R> of(Class<R> type, int roundTripMicros) {
+        return new RepositoryDouble<>(type, roundTripMicros);
+    }
+
+    /**
+     * Answers every call to {@code method}, whatever its overload, with {@code answer} applied to
+     * the call's arguments.
+     */
+    public RepositoryDouble<R> answer(String method, Function<Object[], Object> answer) {
+        answers.put(method, answer);
+        return this;
+    }
+
+    public long roundTrips() {
+        return roundTrips.get();
+    }
+
+    public R repository() {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, this::invoke));
+    }
+
+    private Object invoke(Object proxy, Method method, Object[] args) {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> type.getSimpleName() + " double";
+            };
+        }
+        Function<Object[], Object> answer = answers.get(method.getName());
+        if (answer == null) {
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not answered");
+        }
+        roundTrips.incrementAndGet();
+        if (roundTripNanos > 0) {
+            LockSupport.parkNanos(roundTripNanos);
+        }
+        return answer.apply(args != null ? args : new Object[0]);
+    }
+}
@@ -0,0 +1,407 @@
+package com.example.barista.service;
+
+import com.example.barista.NoTransactionManager;
+import com.example.barista.RepositoryDouble;
+import com.example.barista.model.Barista;
+import com.example.barista.model.Order;
+import com.example.barista.repository.BaristaRepository;
+import com.example.barista.repository.OrderRepository;
+import com.example.barista.repository.OrderRollupRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchedulingAgentServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 6, 8, 0);
+    private static final Clock CLOCK = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    private final List<Order> waiting = new ArrayList<>();
+    private final List<Barista> roster = new ArrayList<>();
+    private final List<SkipUpdate> skipUpdates = new ArrayList<>();
+    private final List<SchedulingAgentService> agentServices = new ArrayList<>();
+    private final DispatchEventPublisher eventPublisher =
+            new DispatchEventPublisher(new ObjectMapper().findAndRegisterModules());
+
+    private record SkipUpdate(List<Long> ids, int delta) {
+    }
+
+    @AfterEach
+    void tearDown() {
+        agentServices.forEach(SchedulingAgentService::shutdown);
+        eventPublisher.shutdown();
+    }
+
+    @Test
+    void dispatchPassWritesOneSkipUpdatePerDistinctDelta() {
+        // 50 slow orders every served order jumps, then 20 only the last two jump
+        long id = 1;
+        for (int index = 0; index < 50; index++) {
+            waiting.add(waitingOrder(id++, "Mocha", 6, NOW.minusMinutes(5), false));
+        }
+        for (int index = 0; index < 20; index++) {
+            waiting.add(waitingOrder(id++, "Mocha", 6, NOW.minusSeconds(150), false));
+        }
+        List<Order> served = List.of(
+                waitingOrder(id++, "Espresso", 2, NOW.minusMinutes(3), true),
+                waitingOrder(id++, "Espresso", 2, NOW.minusMinutes(2), true),
+                waitingOrder(id, "Espresso", 2, NOW.minusMinutes(1), true)
+        );
+        waiting.addAll(served);
+        for (long baristaId = 1; baristaId <= served.size(); baristaId++) {
+            roster.add(Barista.builder().id(baristaId).name("Barista " + baristaId).available(true).build());
+        }
+
+        RepositoryDouble<OrderRepository> orders = RepositoryDouble.of(OrderRepository.class, 0)
+                .answer("findByStatusOrderByArrivalTimeAsc", args -> "WAITING".equals(args[0]) ? waiting : List.of())
+                .answer("claimWaiting", args -> 1)
+                .answer("incrementSkippedByLaterCount", args -> {
+                    List<Long> ids = ((Collection<?>) args[0]).stream().map(Long.class::cast).toList();
+                    skipUpdates.add(new SkipUpdate(ids, (Integer) args[1]));
+                    return ids.size();
+                });
+        RepositoryDouble<BaristaRepository> baristas = RepositoryDouble.of(BaristaRepository.class, 0)
+                .answer("findAll", args -> roster)
+                .answer("claimAvailable", args -> 1)
+                .answer("assignClaimed", args -> 1);
+        DispatchEngine dispatchEngine = new DispatchEngine(orders.repository(), baristas.repository());
+
+        agentService(orders.repository(), baristas.repository(), dispatchEngine).runDispatchPass();
+
+        assertThat(served).allSatisfy(order -> assertThat(order.getStatus()).isEqualTo("IN_PROGRESS"));
+        assertThat(skipUpdates).hasSize(2);
+        Map<Integer, List<Long>> idsByDelta = skipUpdates.stream()
+                .collect(Collectors.toMap(SkipUpdate::delta, SkipUpdate::ids));
+        assertThat(idsByDelta.get(3)).containsExactlyInAnyOrderElementsOf(ids(waiting.subList(0, 50)));
+        assertThat(idsByDelta.get(2)).containsExactlyInAnyOrderElementsOf(ids(waiting.subList(50, 70)));
+        // the resident index picks up the same deltas without another read
+        assertThat(dispatchEngine.getWaitingOrders())
+                .hasSize(70)
+                .allSatisfy(order -> assertThat(order.getSkippedByLaterCount())
+                        .isEqualTo(order.getId() <= 50 ? 3 : 2));
+    }
+
+    @Test
+    void concurrentPassesAndCompletionsAssignEachOrderOnceAndBaristasOneAtATime() throws Exception {
+        Tables tables = new Tables();
+        for (long id = 1; id <= 400; id++) {
+            Order order = waitingOrder(id, id % 4 == 0 ? "Latte" : "Espresso", id % 4 == 0 ? 4 : 2,
+                    NOW.minusSeconds(id * 7 % 900), id % 5 == 0);
+            order.setZone(id % 3 == 0 ? "window" : "bar");
+            tables.orders.put(id, order);
+        }
+        for (long id = 1; id <= 12; id++) {
+            tables.baristas.put(id, Barista.builder()
+                    .id(id)
+                    .name("Barista " + id)
+                    .available(true)
+                    .zone(id % 2 == 0 ? "window" : "bar")
+                    .build());
+        }
+
+        // two instances on the same tables, each with its own resident engine; every instance runs
+        // two dispatch threads and two completion threads, one marking orders done, one timing out
+        OrderRepository orderRepository = tables.orderRepository();
+        BaristaRepository baristaRepository = tables.baristaRepository();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int instance = 0; instance < 2; instance++) {
+            DispatchEngine dispatchEngine = new DispatchEngine(orderRepository, baristaRepository);
+            SchedulingAgentService agentService = agentService(orderRepository, baristaRepository, dispatchEngine);
+            ReflectionTestUtils.setField(agentService, "zoneParallelism", 2);
+            for (int thread = 0; thread < 2; thread++) {
+                workers.add(threads.submit(() -> {
+                    while (running.get()) {
+                        agentService.runDispatchPass();
+                    }
+                }));
+            }
+            workers.add(threads.submit(() -> {
+                while (running.get()) {
+                    for (Order order : dispatchEngine.getInProgressOrders()) {
+                        try {
+                            agentService.completeOrder(order, LocalDateTime.now(CLOCK));
+                        } catch (IllegalStateException ex) {
+                            // the timer got there first
+                        }
+                    }
+                }
+            }));
+            workers.add(threads.submit(() -> {
+                while (running.get()) {
+                    for (Order order : dispatchEngine.getInProgressOrders()) {
+                        if (ThreadLocalRandom.current().nextBoolean()) {
+                            agentService.completeDueOrder(order.getId());
+                        }
+                    }
+                }
+            }));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (tables.count("COMPLETED") < tables.orders.size() && System.nanoTime() < deadline
+                && workers.stream().noneMatch(Future::isDone)) {
+            Thread.sleep(10);
+        }
+        running.set(false);
+        threads.shutdown();
+        assertThat(threads.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+
+        synchronized (tables) {
+            assertThat(tables.violations).isEmpty();
+            assertThat(tables.orders.values())
+                    .allSatisfy(order -> assertThat(order.getStatus()).isEqualTo("COMPLETED"));
+            assertThat(tables.claims).hasSize(tables.orders.size()).allSatisfy((id, claims) -> assertThat(claims)
+                    .as("claims of order %d", id)
+                    .isEqualTo(1));
+            assertThat(tables.baristas.values()).allSatisfy(barista -> {
+                assertThat(barista.isAvailable()).isTrue();
+                assertThat(barista.getCurrentOrderId()).isNull();
+            });
+        }
+    }
+
+    private SchedulingAgentService agentService(OrderRepository orderRepository, BaristaRepository baristaRepository,
+                                                DispatchEngine dispatchEngine) {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PrepTimeEstimator prepTimeEstimator = new PrepTimeEstimator();
+        DispatchTrigger dispatchTrigger = new DispatchTrigger(null, meterRegistry) {
+            @Override
+            public void request() {
+            }
+        };
+        SchedulingAgentService agentService = new SchedulingAgentService(
+                orderRepository,
+                baristaRepository,
+                dispatchEngine,
+                new CompletionScheduler(null, prepTimeEstimator, meterRegistry, CLOCK),
+                eventPublisher,
+                dispatchTrigger,
+                new DispatchMetrics(meterRegistry, dispatchEngine, orderRepository, baristaRepository),
+                new OrderRollupService(RepositoryDouble.of(OrderRollupRepository.class, 0).repository(),
+                        baristaRepository, null, CLOCK),
+                prepTimeEstimator,
+                Map.of("greedy", new GreedyAssignmentStrategy()),
+                CLOCK,
+                new TransactionTemplate(new NoTransactionManager())
+        );
+        agentServices.add(agentService);
+        ReflectionTestUtils.setField(agentService, "dispatchMode", DispatchMode.MEMORY);
+        ReflectionTestUtils.setField(agentService, "strategyName", "greedy");
+        ReflectionTestUtils.setField(agentService, "stealBacklogPerBarista", 2.0);
+        return agentService;
+    }
+
+    private static Order waitingOrder(long id, String drinkType, int prepTime, LocalDateTime arrivalTime,
+                                      boolean regular) {
+        return Order.builder()
+                .id(id)
+                .drinkType(drinkType)
+                .prepTime(prepTime)
+                .arrivalTime(arrivalTime)
+                .customerName("Customer " + id)
+                .loyaltyCustomer(regular)
+                .rushOrder(regular)
+                .status("WAITING")
+                .build();
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).toList();
+    }
+
+    // The order and barista rows, each conditional UPDATE applied atomically as the database would,
+    // and every read handing out copies, as a fresh persistence context would. A claim that would
+    // give a barista a second current order is recorded as a violation.
+    private static final class Tables {
+        private final Map<Long, Order> orders = new TreeMap<>();
+        private final Map<Long, Barista> baristas = new TreeMap<>();
+        private final Map<Long, Integer> claims = new HashMap<>();
+        private final List<String> violations = new ArrayList<>();
+
+        OrderRepository orderRepository() {
+            return RepositoryDouble.of(OrderRepository.class, 0)
+                    .answer("findByStatusOrderByArrivalTimeAsc", args -> withStatus((String) args[0]))
+                    .answer("findStatusById", args -> status((Long) args[0]))
+                    .answer("claimWaiting", args -> claimWaiting((Long) args[0], (Long) args[1],
+                            (LocalDateTime) args[2], (Integer) args[3], (Integer) args[5]))
+                    .answer("incrementSkippedByLaterCount", args ->
+                            incrementSkipped((Collection<?>) args[0], (Integer) args[1]))
+                    .answer("completeInProgress", args -> completeInProgress((Long) args[0], (LocalDateTime) args[1]))
+                    .repository();
+        }
+
+        BaristaRepository baristaRepository() {
+            return RepositoryDouble.of(BaristaRepository.class, 0)
+                    .answer("findAll", args -> allBaristas())
+                    .answer("claimAvailable", args -> claimAvailable((Long) args[0]))
+                    .answer("assignClaimed", args -> assignClaimed((Long) args[0], (Long) args[1], (Integer) args[2]))
+                    .answer("releaseUnassigned", args -> releaseUnassigned((Long) args[0]))
+                    .answer("releaseFromOrder", args -> releaseFromOrder((Long) args[0], (Long) args[1]))
+                    .repository();
+        }
+
+        synchronized long count(String status) {
+            return orders.values().stream().filter(order -> status.equals(order.getStatus())).count();
+        }
+
+        private synchronized List<Order> withStatus(String status) {
+            return orders.values().stream()
+                    .filter(order -> status.equals(order.getStatus()))
+                    .sorted(Comparator.comparing(Order::getArrivalTime))
+                    .map(Tables::copy)
+                    .toList();
+        }
+
+        private synchronized Optional<String> status(Long id) {
+            return Optional.ofNullable(orders.get(id)).map(Order::getStatus);
+        }
+
+        private synchronized int claimWaiting(Long id, Long baristaId, LocalDateTime startedAt, int prepTime,
+                                              int pendingSkips) {
+            Order order = orders.get(id);
+            if (!"WAITING".equals(order.getStatus())) {
+                return 0;
+            }
+            orders.values().stream()
+                    .filter(other -> "IN_PROGRESS".equals(other.getStatus()))
+                    .filter(other -> baristaId.equals(other.getAssignedBaristaId()))
+                    .forEach(other -> violations.add("barista " + baristaId + " claimed order " + id
+                            + " while still on order " + other.getId()));
+            order.setStatus("IN_PROGRESS");
+            order.setAssignedBaristaId(baristaId);
+            order.setStartedAt(startedAt);
+            order.setPrepTime(prepTime);
+            order.setSkippedByLaterCount(order.getSkippedByLaterCount() + pendingSkips);
+            order.setVersion(order.getVersion() + 1);
+            claims.merge(id, 1, Integer::sum);
+            return 1;
+        }
+
+        private synchronized int incrementSkipped(Collection<?> ids, int delta) {
+            ids.forEach(id -> {
+                Order order = orders.get((Long) id);
+                order.setSkippedByLaterCount(order.getSkippedByLaterCount() + delta);
+            });
+            return ids.size();
+        }
+
+        private synchronized int completeInProgress(Long id, LocalDateTime completedAt) {
+            Order order = orders.get(id);
+            if (!"IN_PROGRESS".equals(order.getStatus())) {
+                return 0;
+            }
+            order.setStatus("COMPLETED");
+            order.setCompletedAt(completedAt);
+            order.setVersion(order.getVersion() + 1);
+            return 1;
+        }
+
+        private synchronized List<Barista> allBaristas() {
+            return baristas.values().stream().map(Tables::copy).toList();
+        }
+
+        private synchronized int claimAvailable(Long id) {
+            Barista barista = baristas.get(id);
+            if (!barista.isAvailable()) {
+                return 0;
+            }
+            barista.setAvailable(false);
+            barista.setVersion(barista.getVersion() + 1);
+            return 1;
+        }
+
+        private synchronized int assignClaimed(Long id, Long orderId, int prepTime) {
+            Barista barista = baristas.get(id);
+            if (barista.getCurrentOrderId() != null) {
+                violations.add("barista " + id + " assigned order " + orderId
+                        + " while still on order " + barista.getCurrentOrderId());
+            }
+            barista.setCurrentOrderId(orderId);
+            barista.setWorkloadMinutes(barista.getWorkloadMinutes() + prepTime);
+            barista.setVersion(barista.getVersion() + 1);
+            return 1;
+        }
+
+        private synchronized int releaseUnassigned(Long id) {
+            Barista barista = baristas.get(id);
+            if (barista.isAvailable() || barista.getCurrentOrderId() != null) {
+                return 0;
+            }
+            barista.setAvailable(true);
+            barista.setVersion(barista.getVersion() + 1);
+            return 1;
+        }
+
+        private synchronized int releaseFromOrder(Long id, Long orderId) {
+            Barista barista = baristas.get(id);
+            if (!orderId.equals(barista.getCurrentOrderId())) {
+                return 0;
+            }
+            barista.setAvailable(true);
+            barista.setCurrentOrderId(null);
+            barista.setVersion(barista.getVersion() + 1);
+            return 1;
+        }
+
+        private static Order copy(Order order) {
+            return Order.builder()
+                    .id(order.getId())
+                    .drinkType(order.getDrinkType())
+                    .prepTime(order.getPrepTime())
+                    .arrivalTime(order.getArrivalTime())
+                    .customerName(order.getCustomerName())
+                    .loyaltyCustomer(order.isLoyaltyCustomer())
+                    .rushOrder(order.isRushOrder())
+                    .priorityScore(order.getPriorityScore())
+                    .status(order.getStatus())
+                    .zone(order.getZone())
+                    .skippedByLaterCount(order.getSkippedByLaterCount())
+                    .assignedBaristaId(order.getAssignedBaristaId())
+                    .startedAt(order.getStartedAt())
+                    .completedAt(order.getCompletedAt())
+                    .version(order.getVersion())
+                    .build();
+        }
+
+        private static Barista copy(Barista barista) {
+            return Barista.builder()
+                    .id(barista.getId())
+                    .name(barista.getName())
+                    .available(barista.isAvailable())
+                    .workloadMinutes(barista.getWorkloadMinutes())
+                    .currentOrderId(barista.getCurrentOrderId())
+                    .zone(barista.getZone())
+                    .version(barista.getVersion())
+                    .build();
+        }
+    }
+}
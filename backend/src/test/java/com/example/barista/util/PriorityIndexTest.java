@@ -0,0 +1,142 @@
+package com.example.barista.util;
+
+import com.example.barista.model.Order;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Random add/remove/refresh/advanceTo sequences against the ranking PriorityIndex replaces: the
+ * queue in arrival order, scored with {@link PriorityCalculator#calculate(Order, LocalDateTime)}
+ * and stable-sorted by score. Arrivals share seconds, sit on and just off minute boundaries, and
+ * run from the future to well past the 10-minute saturation.
+ */
+class PriorityIndexTest {
+
+    private static final int STEPS = 600;
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 7, 42, 1234, 99_991})
+    void ranksLikeRescoringAndSortingTheQueue(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDateTime now = LocalDateTime.of(2024, 5, 6, 7, 0, 17);
+        PriorityIndex index = new PriorityIndex(now);
+        // insertion order; a re-added order moves to the end, as a fresh enqueue would
+        List<Order> queue = new ArrayList<>();
+        long nextId = 1;
+
+        for (int step = 0; step < STEPS; step++) {
+            int action = random.nextInt(100);
+            if (action < 45 || queue.isEmpty()) {
+                Order order = randomOrder(nextId++, now, random);
+                index.add(order);
+                queue.add(order);
+            } else if (action < 65) {
+                Order order = queue.remove(random.nextInt(queue.size()));
+                assertThat(index.remove(order.getId())).contains(order);
+            } else if (action < 75) {
+                Order order = queue.get(random.nextInt(queue.size()));
+                order.setSkippedByLaterCount(order.getSkippedByLaterCount() + 1 + random.nextInt(3));
+                index.refresh(order);
+            } else if (action < 78) {
+                // the clock going back a little, as after a pass that started on another instance
+                now = now.minusSeconds(random.nextInt(1, 120));
+                index.advanceTo(now);
+            } else {
+                now = now.plusSeconds(random.nextInt(0, 95));
+                index.advanceTo(now);
+            }
+
+            assertMatches(index, queue, now);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {3, 5})
+    void tracksEveryMinuteBoundaryUpToSaturation(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDateTime start = LocalDateTime.of(2024, 5, 6, 7, 0, 0);
+        PriorityIndex index = new PriorityIndex(start);
+        List<Order> queue = new ArrayList<>();
+        for (long id = 1; id <= 80; id++) {
+            Order order = randomOrder(id, start, random);
+            index.add(order);
+            queue.add(order);
+        }
+
+        // second by second across every boundary, then well past the point where scores stop moving
+        for (LocalDateTime now = start; now.isBefore(start.plusMinutes(14)); now = now.plusSeconds(1)) {
+            index.advanceTo(now);
+            assertMatches(index, queue, now);
+        }
+    }
+
+    private static void assertMatches(PriorityIndex index, List<Order> queue, LocalDateTime now) {
+        List<Order> expected = rescoredAndSorted(queue, now);
+
+        assertThat(index.size()).isEqualTo(queue.size());
+        assertThat(ids(index.ordersByPriority())).isEqualTo(ids(expected));
+        assertThat(index.first().map(Order::getId).orElse(null))
+                .isEqualTo(expected.isEmpty() ? null : expected.get(0).getId());
+        for (Order order : queue) {
+            assertThat(index.score(order)).isEqualTo(PriorityCalculator.calculate(order, now));
+        }
+
+        for (long minWait : new long[] {0, 1, 5, 8, PriorityCalculator.WAIT_SCORE_SATURATION_MINUTES}) {
+            List<Order> waited = expected.stream()
+                    .filter(order -> PriorityCalculator.waitMinutes(order.getArrivalTime(), now) >= minWait)
+                    .toList();
+            assertThat(index.countWaitingAtLeast(minWait)).isEqualTo(waited.size());
+            assertThat(ids(index.topByPriority(5, minWait)))
+                    .isEqualTo(ids(waited.subList(0, Math.min(5, waited.size()))));
+            assertThat(index.firstWaitingAtLeast(minWait).map(Order::getId).orElse(null))
+                    .isEqualTo(waited.isEmpty() ? null : waited.get(0).getId());
+        }
+        for (PriorityIndex.PrepClass prepClass : PriorityIndex.PrepClass.values()) {
+            Long expectedFirst = expected.stream()
+                    .filter(order -> PriorityIndex.PrepClass.of(order.getPrepTime()) == prepClass)
+                    .findFirst()
+                    .map(Order::getId)
+                    .orElse(null);
+            assertThat(index.first(prepClass).map(Order::getId).orElse(null)).isEqualTo(expectedFirst);
+        }
+    }
+
+    // the old dispatch ranking: arrival order (ties by enqueue order), then a stable sort by score
+    private static List<Order> rescoredAndSorted(List<Order> queue, LocalDateTime now) {
+        List<Order> sorted = new ArrayList<>(queue);
+        sorted.sort(Comparator.comparing(Order::getArrivalTime));
+        sorted.sort(Comparator.comparingDouble((Order order) -> PriorityCalculator.calculate(order, now)).reversed());
+        return sorted;
+    }
+
+    private static Order randomOrder(long id, LocalDateTime now, SplittableRandom random) {
+        // whole minutes back, exactly on or a second either side of a boundary, or a future till clock
+        long secondsAgo = switch (random.nextInt(4)) {
+            case 0 -> 60L * random.nextInt(0, 14);
+            case 1 -> 60L * random.nextInt(1, 14) + (random.nextBoolean() ? 1 : -1);
+            case 2 -> -random.nextInt(1, 90);
+            default -> random.nextInt(0, 14 * 60);
+        };
+        return Order.builder()
+                .id(id)
+                .drinkType("Latte")
+                .prepTime(random.nextInt(1, 7))
+                .arrivalTime(now.minusSeconds(secondsAgo))
+                .loyaltyCustomer(random.nextInt(4) == 0)
+                .rushOrder(random.nextInt(8) == 0)
+                .skippedByLaterCount(random.nextInt(6))
+                .status("WAITING")
+                .build();
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).toList();
+    }
+}
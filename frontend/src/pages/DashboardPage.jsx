@@ -1,6 +1,6 @@
 import { useEffect, useMemo, useState } from 'react'
 import { Link } from 'react-router-dom'
-import { apiFetch } from '../lib/api'
+import { apiFetch, getApiBase } from '../lib/api'
 
 const DRINKS = [
   { label: 'Cold Brew', prep: 1, price: 120 },
@@ -15,6 +15,47 @@ const formatMinutes = (value) => `${value.toFixed(1)} min`
 
 const parseTime = (value) => (value ? new Date(value).getTime() : null)
 
+const DISPATCH_EVENTS = [
+  'order-created',
+  'order-assigned',
+  'order-completed',
+  'barista-freed',
+  'barista-updated'
+]
+
+const ORDER_PAGE_SIZE = 500
+const RECENT_COMPLETED_LIMIT = 200
+
+class UnauthorizedError extends Error {}
+
+const fetchOrderPage = async (params) => {
+  const response = await apiFetch(`/api/orders?${new URLSearchParams(params)}`)
+  if (response.status === 401) throw new UnauthorizedError()
+  if (!response.ok) throw new Error('Backend unavailable')
+  return response.json()
+}
+
+const fetchAllOrders = async (status) => {
+  const orders = []
+  let cursor = null
+  do {
+    const page = await fetchOrderPage({ status, limit: ORDER_PAGE_SIZE, ...(cursor ? { cursor } : {}) })
+    orders.push(...page.orders)
+    cursor = page.nextCursor
+  } while (cursor)
+  return orders
+}
+
+// keeps the newer copy: an action's response can arrive after the event for a later change
+const upsertById = (items, item) => {
+  const index = items.findIndex((existing) => existing.id === item.id)
+  if (index === -1) return [...items, item]
+  if (items[index].version != null && item.version != null && item.version < items[index].version) return items
+  const next = items.slice()
+  next[index] = item
+  return next
+}
+
 export default function DashboardPage({ user, onLogout, onUnauthorized }) {
   const [orders, setOrders] = useState([])
   const [baristas, setBaristas] = useState([])
@@ -80,29 +121,32 @@ export default function DashboardPage({ user, onLogout, onUnauthorized }) {
     setLoading(true)
     setError('')
     try {
-      const [ordersRes, baristasRes] = await Promise.all([
-        apiFetch('/api/orders'),
+      const [waitingData, inProgressData, completedPage, baristasRes] = await Promise.all([
+        fetchAllOrders('WAITING'),
+        fetchAllOrders('IN_PROGRESS'),
+        fetchOrderPage({ status: 'COMPLETED', limit: RECENT_COMPLETED_LIMIT, newestFirst: true }),
         apiFetch('/api/baristas')
       ])
 
-      if (ordersRes.status === 401 || baristasRes.status === 401) {
+      if (baristasRes.status === 401) {
         onUnauthorized()
         return
       }
 
-      if (!ordersRes.ok || !baristasRes.ok) {
+      if (!baristasRes.ok) {
         throw new Error('Backend unavailable')
       }
 
-      const [ordersData, baristasData] = await Promise.all([
-        ordersRes.json(),
-        baristasRes.json()
-      ])
+      const baristasData = await baristasRes.json()
 
-      setOrders(ordersData)
+      setOrders([...waitingData, ...inProgressData, ...completedPage.orders.reverse()])
       setBaristas(baristasData)
       setLastRefresh(new Date())
     } catch (err) {
+      if (err instanceof UnauthorizedError) {
+        onUnauthorized()
+        return
+      }
       setError('Cannot reach backend. Start Spring Boot and refresh.')
     } finally {
       setLoading(false)
@@ -110,9 +154,32 @@ export default function DashboardPage({ user, onLogout, onUnauthorized }) {
   }
 
   useEffect(() => {
-    fetchAll()
-    const interval = setInterval(fetchAll, 5000)
-    return () => clearInterval(interval)
+    if (typeof EventSource === 'undefined') {
+      fetchAll()
+      const interval = setInterval(fetchAll, 5000)
+      return () => clearInterval(interval)
+    }
+
+    // The browser reconnects on its own and resends Last-Event-ID, so the server
+    // replays whatever was missed; a resync means the gap was too long to replay or
+    // the backend restarted. Every (re)connect refetches too, as a backstop. Between
+    // those, the board only changes by these deltas, including for this user's own actions.
+    const source = new EventSource(`${getApiBase()}/api/events`, { withCredentials: true })
+    const applyEvent = (event) => {
+      const { order, barista } = JSON.parse(event.data)
+      if (order) setOrders((current) => upsertById(current, order))
+      if (barista) setBaristas((current) => upsertById(current, barista))
+      setLastRefresh(new Date())
+    }
+
+    source.addEventListener('open', fetchAll)
+    source.addEventListener('resync', fetchAll)
+    source.addEventListener('error', () => {
+      if (source.readyState === EventSource.CLOSED) fetchAll()
+    })
+    DISPATCH_EVENTS.forEach((type) => source.addEventListener(type, applyEvent))
+
+    return () => source.close()
   }, [])
 
   const handleSubmit = async (event) => {
@@ -133,7 +200,9 @@ export default function DashboardPage({ user, onLogout, onUnauthorized }) {
       if (!response.ok) {
         throw new Error('Failed to create order')
       }
-      await fetchAll()
+      // the order-created event updates the board too; a journaled order has no id until then
+      const created = await response.json()
+      if (created.id != null) setOrders((current) => upsertById(current, created))
     } catch (err) {
       setError('Order submission failed. Check the backend logs.')
     } finally {
@@ -155,7 +224,8 @@ export default function DashboardPage({ user, onLogout, onUnauthorized }) {
       if (!response.ok) {
         throw new Error('Failed to seed baristas')
       }
-      await fetchAll()
+      const seeded = await response.json()
+      setBaristas((current) => seeded.reduce(upsertById, current))
     } catch (err) {
       setError('Could not seed baristas. Check the backend.')
     } finally {
@@ -177,7 +247,8 @@ export default function DashboardPage({ user, onLogout, onUnauthorized }) {
       if (!response.ok) {
         throw new Error('Failed to complete order')
       }
-      await fetchAll()
+      const completed = await response.json()
+      setOrders((current) => upsertById(current, completed))
     } catch (err) {
       setError('Could not complete order. Try again.')
     } finally {
@@ -534,8 +605,16 @@ export default function DashboardPage({ user, onLogout, onUnauthorized }) {
                                 {order.prepTime}m
                               </span>
                             </div>
-                            <div className="mt-2 flex items-center gap-2 text-[10px] font-semibold text-orange-700">
+                            <div className="mt-2 flex items-center justify-between gap-2 text-[10px] font-semibold text-orange-700">
                               <span className="rounded-full bg-orange-100 px-2 py-1">👤 B{order.assignedBaristaId ?? '?'}</span>
+                              <button
+                                type="button"
+                                onClick={() => completeOrder(order.id)}
+                                disabled={loading}
+                                className="rounded-full bg-green-600 px-3 py-1 text-[10px] font-bold text-white transition-all hover:bg-green-700 disabled:opacity-50"
+                              >
+                                ✅ Done
+                              </button>
                             </div>
                           </div>
                         ))